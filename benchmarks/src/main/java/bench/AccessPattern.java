@@ -0,0 +1,41 @@
+package bench;
+
+import java.util.Random;
+
+/**
+ * Распределения индексов для бенчмарков.
+ *  - RANDOM     — равномерно по [0, n);
+ *  - SEQUENTIAL — подряд 0, 1, 2, ... с заворотом;
+ *  - ZIPF       — скошенное (s ≈ 1): горячие индексы у начала массива, как у свежих бакетов.
+ */
+public enum AccessPattern {
+    RANDOM,
+    SEQUENTIAL,
+    ZIPF;
+
+    /** Размер заранее сгенерированной последовательности индексов (степень двойки). */
+    public static final int STREAM_SIZE = 1 << 16;
+    public static final int STREAM_MASK = STREAM_SIZE - 1;
+
+    public int[] indices(int n, long seed) {
+        int[] res = new int[STREAM_SIZE];
+        Random random = new Random(seed);
+        double logN = Math.log(n);
+        for (int i = 0; i < STREAM_SIZE; i++) {
+            switch (this) {
+                case RANDOM:
+                    res[i] = random.nextInt(n);
+                    break;
+                case SEQUENTIAL:
+                    res[i] = i % n;
+                    break;
+                default:
+                    // непрерывное приближение Zipf(1): P(rank <= x) ~ ln x / ln n
+                    int rank = (int) Math.exp(random.nextDouble() * logN);
+                    res[i] = Math.min(rank, n) - 1;
+                    break;
+            }
+        }
+        return res;
+    }
+}
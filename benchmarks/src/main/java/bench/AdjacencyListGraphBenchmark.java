@@ -0,0 +1,96 @@
+package bench;
+
+import ds.MyList;
+import graph.AdjacencyListGraph;
+import graph.CsrGraph;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/** Построение случайного графа и полный обход списков смежности: AdjacencyListGraph против CsrGraph. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class AdjacencyListGraphBenchmark {
+
+    @Param({"1000", "1000000"})
+    int vertices;
+
+    @Param({"8"})
+    int avgDegree;
+
+    int[] from;
+    int[] to;
+    AdjacencyListGraph<Integer> graph;
+    CsrGraph<Integer> csr;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(3);
+        int edges = vertices * avgDegree / 2;
+        from = new int[edges];
+        to = new int[edges];
+        for (int i = 0; i < edges; i++) {
+            from[i] = random.nextInt(vertices);
+            to[i] = random.nextInt(vertices);
+        }
+        graph = build();
+        csr = CsrGraph.freeze(graph);
+    }
+
+    @Benchmark
+    public AdjacencyListGraph<Integer> build() {
+        AdjacencyListGraph<Integer> g = new AdjacencyListGraph<>(false, vertices);
+        for (int v = 0; v < vertices; v++) {
+            g.addVertex(v);
+        }
+        for (int i = 0; i < from.length; i++) {
+            g.addEdge(from[i], to[i]);
+        }
+        return g;
+    }
+
+    @Benchmark
+    public long iterateNeighbors() {
+        long sum = 0;
+        for (int v = 0; v < vertices; v++) {
+            MyList<Integer> adj = graph.neighbors(v);
+            for (int i = 0; i < adj.size(); i++) {
+                sum += adj.get(i);
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public CsrGraph<Integer> freezeCsr() {
+        return CsrGraph.freeze(graph);
+    }
+
+    @Benchmark
+    public long iterateCsrCursor() {
+        long sum = 0;
+        CsrGraph<Integer>.Cursor cursor = csr.cursor();
+        for (int v = 0; v < vertices; v++) {
+            cursor.reset(v);
+            while (cursor.hasNext()) {
+                sum += cursor.next();
+            }
+        }
+        return sum;
+    }
+}
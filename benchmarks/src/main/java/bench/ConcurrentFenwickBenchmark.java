@@ -0,0 +1,82 @@
+package bench;
+
+import ds.ConcurrentFenwickTree;
+import ds.StripedFenwickTree;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Многопоточные update/prefixSum на общем дереве: ConcurrentFenwickTree и StripedFenwickTree.
+ * Масштабирование: запуск с -t 1, -t 2, ... -t N и сравнение ops/us.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(Threads.MAX)
+public class ConcurrentFenwickBenchmark {
+
+    @Param({"1000", "1000000"})
+    int size;
+
+    @Param({"RANDOM", "ZIPF"})
+    AccessPattern pattern;
+
+    ConcurrentFenwickTree concurrent;
+    StripedFenwickTree striped;
+
+    @Setup
+    public void setUp() {
+        concurrent = new ConcurrentFenwickTree(size);
+        striped = new StripedFenwickTree(size);
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int[] indices;
+        int next;
+
+        @Setup
+        public void setUp(ConcurrentFenwickBenchmark bench) {
+            indices = bench.pattern.indices(bench.size, Thread.currentThread().getId());
+        }
+
+        int nextIndex() {
+            return indices[next++ & AccessPattern.STREAM_MASK];
+        }
+    }
+
+    @Benchmark
+    public void concurrentUpdate(Cursor c) {
+        concurrent.update(c.nextIndex(), 1);
+    }
+
+    @Benchmark
+    public long concurrentPrefixSum(Cursor c) {
+        return concurrent.prefixSum(c.nextIndex());
+    }
+
+    @Benchmark
+    public void stripedUpdate(Cursor c) {
+        striped.update(c.nextIndex(), 1);
+    }
+
+    @Benchmark
+    public long stripedPrefixSum(Cursor c) {
+        return striped.prefixSum(c.nextIndex());
+    }
+}
@@ -0,0 +1,104 @@
+package bench;
+
+import ds.FenwickTree;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пакетные операции FenwickTree против цикла одиночных вызовов:
+ * updateBatch против update и prefixSums/rangeSums против prefixSum/rangeSum.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g"})
+public class FenwickBatchBenchmark {
+
+    @Param({"1000000"})
+    int size;
+
+    @Param({"1000", "100000", "1000000"})
+    int batch;
+
+    FenwickTree tree;
+    int[] indices;
+    int[] deltas;
+    int[] lefts;
+    int[] rights;
+    long[] out;
+    long[] scratch;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(7);
+        tree = new FenwickTree(size);
+        indices = new int[batch];
+        deltas = new int[batch];
+        lefts = new int[batch];
+        rights = new int[batch];
+        out = new long[batch];
+        scratch = new long[size + 1];
+        for (int i = 0; i < batch; i++) {
+            indices[i] = random.nextInt(size);
+            deltas[i] = 1;
+            int a = random.nextInt(size);
+            int b = random.nextInt(size);
+            lefts[i] = Math.min(a, b);
+            rights[i] = Math.max(a, b);
+        }
+    }
+
+    @Benchmark
+    public void updateLoop() {
+        for (int i = 0; i < batch; i++) {
+            tree.update(indices[i], deltas[i]);
+        }
+    }
+
+    @Benchmark
+    public void updateBatch() {
+        tree.updateBatch(indices, deltas);
+    }
+
+    @Benchmark
+    public long[] prefixSumLoop() {
+        for (int i = 0; i < batch; i++) {
+            out[i] = tree.prefixSum(indices[i]);
+        }
+        return out;
+    }
+
+    @Benchmark
+    public long[] prefixSums() {
+        tree.prefixSums(indices, out, scratch);
+        return out;
+    }
+
+    @Benchmark
+    public long[] rangeSumLoop() {
+        for (int i = 0; i < batch; i++) {
+            out[i] = tree.rangeSum(lefts[i], rights[i]);
+        }
+        return out;
+    }
+
+    @Benchmark
+    public long[] rangeSums() {
+        tree.rangeSums(lefts, rights, out, scratch);
+        return out;
+    }
+}
@@ -0,0 +1,86 @@
+package bench;
+
+import ds.FenwickHistogram;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FenwickHistogram против наивной базовой линии: все значения в массиве,
+ * перцентиль — сортировка копии и взятие по рангу.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FenwickHistogramBenchmark {
+
+    private static final long HIGHEST = 3_600_000_000L; // час в микросекундах
+
+    @Param({"10000", "1000000"})
+    int samples;
+
+    long[] values;
+    FenwickHistogram histogram;
+    long[] baseline;
+    int baselineSize;
+    int cursor;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(11);
+        values = new long[AccessPattern.STREAM_SIZE];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (long) Math.exp(random.nextDouble() * 20); // лог-нормальный разброс задержек
+        }
+        histogram = new FenwickHistogram(HIGHEST);
+        baseline = new long[samples];
+        for (int i = 0; i < samples; i++) {
+            long v = values[i & AccessPattern.STREAM_MASK];
+            histogram.recordValue(v);
+            baseline[i] = v;
+        }
+        baselineSize = samples;
+    }
+
+    @Benchmark
+    public void recordHistogram() {
+        histogram.recordValue(values[cursor++ & AccessPattern.STREAM_MASK]);
+    }
+
+    @Benchmark
+    public void recordBaseline() {
+        if (baselineSize == baseline.length) {
+            baselineSize = 0; // кольцевая перезапись, чтобы массив не рос
+        }
+        baseline[baselineSize++] = values[cursor++ & AccessPattern.STREAM_MASK];
+    }
+
+    @Benchmark
+    public long p99Histogram() {
+        return histogram.valueAtPercentile(99.0);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public long p99Baseline() {
+        long[] sorted = Arrays.copyOf(baseline, baselineSize);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(0.99 * sorted.length) - 1;
+        return sorted[Math.max(rank, 0)];
+    }
+}
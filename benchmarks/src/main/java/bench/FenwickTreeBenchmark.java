@@ -0,0 +1,128 @@
+package bench;
+
+import ds.BlockedFenwickTree;
+import ds.FenwickTree;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Однопоточные операции FenwickTree на размерах 1K..100M и трёх распределениях индексов.
+ * Методы blocked* — те же операции на BlockedFenwickTree для сравнения раскладок.
+ * Аллокации на горячих путях: запуск с -prof gc (ожидается ~0 B/op для update/prefixSum/rangeSum/lowerBound).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms6g", "-Xmx6g"})
+public class FenwickTreeBenchmark {
+
+    @Param({"1000", "1000000", "10000000", "100000000"})
+    int size;
+
+    @Param({"RANDOM", "SEQUENTIAL", "ZIPF"})
+    AccessPattern pattern;
+
+    int[] input;
+    FenwickTree tree;
+    BlockedFenwickTree blocked;
+    int[] indices;
+    int[] others;
+    int[] targets;
+    int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        // сумма всего массива должна помещаться в int с запасом под update: иначе при 100M
+        // префиксные суммы и targets заворачиваются, и lowerBound выходит сразу по target <= 0
+        int bound = Math.max(1, Math.min(100, Integer.MAX_VALUE / 2 / size));
+        input = new int[size];
+        for (int i = 0; i < size; i++) {
+            input[i] = random.nextInt(bound);
+        }
+        tree = new FenwickTree(size);
+        tree.build(input);
+        blocked = new BlockedFenwickTree(size);
+        blocked.build(input);
+
+        indices = pattern.indices(size, 1);
+        others = pattern.indices(size, 2);
+        targets = new int[AccessPattern.STREAM_SIZE];
+        for (int i = 0; i < targets.length; i++) {
+            targets[i] = tree.prefixSum(indices[i]);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public FenwickTree build() {
+        tree.build(input);
+        return tree;
+    }
+
+    @Benchmark
+    public void update() {
+        int c = cursor++;
+        tree.update(indices[c & AccessPattern.STREAM_MASK], delta(c));
+    }
+
+    @Benchmark
+    public int prefixSum() {
+        return tree.prefixSum(indices[cursor++ & AccessPattern.STREAM_MASK]);
+    }
+
+    @Benchmark
+    public int rangeSum() {
+        int k = cursor++ & AccessPattern.STREAM_MASK;
+        int a = indices[k];
+        int b = others[k];
+        return a <= b ? tree.rangeSum(a, b) : tree.rangeSum(b, a);
+    }
+
+    @Benchmark
+    public int lowerBound() {
+        return tree.lowerBound(targets[cursor++ & AccessPattern.STREAM_MASK]);
+    }
+
+    @Benchmark
+    public void blockedUpdate() {
+        int c = cursor++;
+        blocked.update(indices[c & AccessPattern.STREAM_MASK], delta(c));
+    }
+
+    @Benchmark
+    public int blockedPrefixSum() {
+        return blocked.prefixSum(indices[cursor++ & AccessPattern.STREAM_MASK]);
+    }
+
+    @Benchmark
+    public int blockedLowerBound() {
+        return blocked.lowerBound(targets[cursor++ & AccessPattern.STREAM_MASK]);
+    }
+
+    /*
+     * +1 на чётных проходах по потоку индексов, -1 на нечётных: следующий проход снимает
+     * то, что добавил предыдущий, и узлы не растут (и не заворачиваются) за долгий замер
+     */
+    private static int delta(int c) {
+        return (c & AccessPattern.STREAM_SIZE) == 0 ? 1 : -1;
+    }
+}
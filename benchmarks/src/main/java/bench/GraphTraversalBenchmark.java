@@ -0,0 +1,130 @@
+package bench;
+
+import graph.AdjacencyListGraph;
+import graph.CsrGraph;
+import graph.traversal.ConnectedComponents;
+import graph.traversal.ParallelBfs;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BFS и компоненты связности на случайном графе из AdjacencyListGraph: последовательная очередь
+ * против ParallelBfs / ConnectedComponents. Параллелизм — общий пул ForkJoin,
+ * число потоков задаётся через -Djava.util.concurrent.ForkJoinPool.common.parallelism.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx6g"})
+public class GraphTraversalBenchmark {
+
+    @Param({"1000000", "4000000"})
+    int vertices;
+
+    @Param({"8"})
+    int avgDegree;
+
+    AdjacencyListGraph<Integer> graph;
+    CsrGraph<Integer> csr;
+    ParallelBfs bfsAdjacency;
+    ParallelBfs bfsCsr;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(5);
+        graph = new AdjacencyListGraph<>(false, vertices);
+        for (int v = 0; v < vertices; v++) {
+            graph.addVertex(v);
+        }
+        int edges = vertices * avgDegree / 2;
+        for (int i = 0; i < edges; i++) {
+            graph.addEdge(random.nextInt(vertices), random.nextInt(vertices));
+        }
+        csr = CsrGraph.freeze(graph);
+        bfsAdjacency = new ParallelBfs(graph);
+        bfsCsr = new ParallelBfs(csr);
+    }
+
+    @Benchmark
+    public int[] sequentialBfs() {
+        int[] distance = new int[vertices];
+        Arrays.fill(distance, -1);
+        int[] queue = new int[vertices];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = 0;
+        distance[0] = 0;
+        while (head < tail) {
+            int v = queue[head++];
+            int degree = graph.degree(v);
+            for (int i = 0; i < degree; i++) {
+                int u = graph.neighbor(v, i);
+                if (distance[u] < 0) {
+                    distance[u] = distance[v] + 1;
+                    queue[tail++] = u;
+                }
+            }
+        }
+        return distance;
+    }
+
+    @Benchmark
+    public ParallelBfs.Result parallelBfsAdjacency() {
+        return bfsAdjacency.search(0);
+    }
+
+    @Benchmark
+    public ParallelBfs.Result parallelBfsCsr() {
+        return bfsCsr.search(0);
+    }
+
+    @Benchmark
+    public int sequentialComponents() {
+        int[] label = new int[vertices];
+        Arrays.fill(label, -1);
+        int[] queue = new int[vertices];
+        int count = 0;
+        for (int s = 0; s < vertices; s++) {
+            if (label[s] >= 0) {
+                continue;
+            }
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = s;
+            label[s] = count;
+            while (head < tail) {
+                int v = queue[head++];
+                int degree = graph.degree(v);
+                for (int i = 0; i < degree; i++) {
+                    int u = graph.neighbor(v, i);
+                    if (label[u] < 0) {
+                        label[u] = count;
+                        queue[tail++] = u;
+                    }
+                }
+            }
+            count++;
+        }
+        return count;
+    }
+
+    @Benchmark
+    public ConnectedComponents parallelComponentsCsr() {
+        return ConnectedComponents.compute(csr);
+    }
+}
@@ -0,0 +1,82 @@
+package bench;
+
+import ds.query.OfflineQueryEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/** Пакетные запросы OfflineQueryEngine: инверсии и различные на отрезке, последовательно и на общем пуле. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class OfflineQueryBenchmark {
+
+    @Param({"10000", "1000000"})
+    int size;
+
+    @Param({"1000000"})
+    int queries;
+
+    int[] values;
+    int[] lefts;
+    int[] rights;
+    int[] out;
+    OfflineQueryEngine engine;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(17);
+        values = new int[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = random.nextInt(Math.max(1, size / 4));
+        }
+        lefts = new int[queries];
+        rights = new int[queries];
+        out = new int[queries];
+        for (int k = 0; k < queries; k++) {
+            int a = random.nextInt(size);
+            int b = random.nextInt(size);
+            lefts[k] = Math.min(a, b);
+            rights[k] = Math.max(a, b);
+        }
+        engine = new OfflineQueryEngine(values);
+    }
+
+    @Benchmark
+    public OfflineQueryEngine construct() {
+        return new OfflineQueryEngine(values);
+    }
+
+    @Benchmark
+    public long inversionCount() {
+        return engine.inversionCount();
+    }
+
+    @Benchmark
+    public int[] distinctSequential() {
+        engine.distinctInRange(lefts, rights, out);
+        return out;
+    }
+
+    @Benchmark
+    public int[] distinctParallel() {
+        engine.distinctInRange(lefts, rights, out,
+                ForkJoinPool.commonPool(), ForkJoinPool.getCommonPoolParallelism());
+        return out;
+    }
+}
@@ -0,0 +1,57 @@
+package bench;
+
+import ds.SimpleArrayList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/** Заполнение и чтение SimpleArrayList. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SimpleArrayListBenchmark {
+
+    @Param({"1000", "1000000"})
+    int size;
+
+    SimpleArrayList<Integer> filled;
+
+    @Setup
+    public void setUp() {
+        filled = new SimpleArrayList<>();
+        for (int i = 0; i < size; i++) {
+            filled.add(i);
+        }
+    }
+
+    @Benchmark
+    public SimpleArrayList<Integer> add() {
+        SimpleArrayList<Integer> list = new SimpleArrayList<>();
+        for (int i = 0; i < size; i++) {
+            list.add(i);
+        }
+        return list;
+    }
+
+    @Benchmark
+    public long get() {
+        long sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += filled.get(i);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,86 @@
+package bench;
+
+import graph.AdjacencyListGraph;
+import graph.traversal.SubtreeQueryEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/** Сумма по поддереву случайного дерева: SubtreeQueryEngine против обхода поддерева на каждый запрос. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class SubtreeQueryBenchmark {
+
+    @Param({"1000", "1000000"})
+    int vertices;
+
+    AdjacencyListGraph<Integer> tree;
+    int[] values;
+    int[] stack;
+    SubtreeQueryEngine engine;
+    int[] queries;
+    int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(11);
+        tree = new AdjacencyListGraph<>(true, vertices);
+        values = new int[vertices];
+        for (int v = 0; v < vertices; v++) {
+            tree.addVertex(v);
+            values[v] = random.nextInt(100);
+        }
+        for (int v = 1; v < vertices; v++) {
+            tree.addEdge(random.nextInt(v), v);
+        }
+        stack = new int[vertices];
+        engine = new SubtreeQueryEngine(tree, 0, values);
+        queries = new int[AccessPattern.STREAM_SIZE];
+        for (int i = 0; i < queries.length; i++) {
+            queries[i] = random.nextInt(vertices);
+        }
+    }
+
+    @Benchmark
+    public int engineSubtreeSum() {
+        return engine.subtreeSum(queries[next++ & AccessPattern.STREAM_MASK]);
+    }
+
+    @Benchmark
+    public int engineUpdate() {
+        int v = queries[next++ & AccessPattern.STREAM_MASK];
+        engine.update(v, 1);
+        return v;
+    }
+
+    @Benchmark
+    public int dfsSubtreeSum() {
+        int top = 0;
+        int sum = 0;
+        stack[top++] = queries[next++ & AccessPattern.STREAM_MASK];
+        while (top > 0) {
+            int v = stack[--top];
+            sum += values[v];
+            int degree = tree.degree(v);
+            for (int i = 0; i < degree; i++) {
+                stack[top++] = tree.neighbor(v, i);
+            }
+        }
+        return sum;
+    }
+}
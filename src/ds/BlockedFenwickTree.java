@@ -0,0 +1,442 @@
+package ds;
+/**
+ * Класс BlockedFenwickTree — двухуровневое дерево Фенвика с тем же API, что у FenwickTree.
+ * Методы:
+ *  - void build(int[] arr)
+ *  - void update(int index, int delta)
+ *  - int prefixSum(int index)
+ *  - int rangeSum(int left, int right)
+ *  - int lowerBound(int target)
+ *  - int get(int index), int total()
+ *  - void updateBatch(int[] indices, int[] deltas)
+ *  - void prefixSums(int[] indices, long[] out[, long[] scratch])
+ *  - void rangeSums(int[] lefts, int[] rights, long[] out[, long[] scratch])
+ *  - int rank(int value), int select(int k), int upperBound(int target)
+ *  - int countInRange(int lo, int hi), int median(), int quantile(double q)
+ *
+ * Массив режется на блоки по BLOCK элементов (64 int = 4 кэш-линии по 64 байта).
+ * Внутри каждого блока — своё маленькое дерево Фенвика в local[], поверх сумм блоков —
+ * верхнее дерево top[] в BLOCK раз меньше исходного. Проход по блоку не выходит
+ * за пределы 256 байт, а верхнее дерево дольше остаётся в L2/L3, поэтому при больших n
+ * запросы дают меньше промахов кэша, чем классическая раскладка.
+ * Копия arr не хранится; getArrSnapshot/getTreeSnapshot восстанавливают данные за O(n).
+ * Из API FenwickTree нет только роста (append/ensureCapacity), компактного режима
+ * и бинарных снимков writeTo/readFrom.
+ */
+public class BlockedFenwickTree {
+
+    private static final int BLOCK_SHIFT = 6;
+    private static final int BLOCK = 1 << BLOCK_SHIFT;
+    private static final int BLOCK_MASK = BLOCK - 1;
+
+    private final int n;
+    private final int blocks;
+    private final int[] local; // блок b занимает local[b*BLOCK .. b*BLOCK+BLOCK-1], позиции 1..BLOCK
+    private final int[] top;   // индексы [1..blocks]
+    private int total;         // сумма всех элементов
+
+    public BlockedFenwickTree(int n) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("n must be > 0");
+        }
+        this.n = n;
+        this.blocks = (n + BLOCK_MASK) >>> BLOCK_SHIFT;
+        this.local = new int[blocks << BLOCK_SHIFT];
+        this.top = new int[blocks + 1];
+    }
+
+    public void build(int[] input) {
+        if (input == null) {
+            throw new IllegalArgumentException("input is null");
+        }
+        if (input.length != n) {
+            throw new IllegalArgumentException(
+                    "input length (" + input.length + ") != n (" + n + ")");
+        }
+
+        int sum = 0;
+        for (int i = 0; i < local.length; i++) {
+            local[i] = i < n ? input[i] : 0;
+            sum += local[i];
+        }
+        linearBuild(local, top);
+        total = sum;
+    }
+
+    /* значения loc[0..blocks*BLOCK) превращаются в узлы блоков, tp[1..blocks] — верхнее дерево */
+    private void linearBuild(int[] loc, int[] tp) {
+        tp[0] = 0;
+        for (int b = 0; b < blocks; b++) {
+            int base = b << BLOCK_SHIFT;
+            for (int p = 1; p <= BLOCK; p++) {
+                int j = p + (p & -p);
+                if (j <= BLOCK) {
+                    loc[base + j - 1] += loc[base + p - 1];
+                }
+            }
+            tp[b + 1] = loc[base + BLOCK - 1]; // узел BLOCK покрывает весь блок
+        }
+        for (int i = 1; i <= blocks; i++) {
+            int j = i + (i & -i);
+            if (j <= blocks) {
+                tp[j] += tp[i];
+            }
+        }
+    }
+
+    public void update(int index, int delta) {
+        if (index < 0 || index >= n) {
+            throw new IndexOutOfBoundsException("index = " + index);
+        }
+        internalAdd(index, delta);
+    }
+
+    private void internalAdd(int index, int delta) {
+        int base = index & ~BLOCK_MASK;
+        int p = (index & BLOCK_MASK) + 1;
+        while (p <= BLOCK) {
+            local[base + p - 1] += delta;
+            p += p & -p;
+        }
+        int q = (index >>> BLOCK_SHIFT) + 1;
+        while (q <= blocks) {
+            top[q] += delta;
+            q += q & -q;
+        }
+        total += delta;
+    }
+
+    /**
+     * Пакетное обновление, как FenwickTree.updateBatch: небольшой пакет — проходами по O(log n),
+     * большой — дельты суммируются в массив той же раскладки, собираются линейным build
+     * и прибавляются к узлам за O(n + k). Индексы проверяются до изменений.
+     */
+    public void updateBatch(int[] indices, int[] deltas) {
+        if (indices == null || deltas == null) {
+            throw new IllegalArgumentException("indices or deltas is null");
+        }
+        if (indices.length != deltas.length) {
+            throw new IllegalArgumentException(
+                    "indices length (" + indices.length + ") != deltas length (" + deltas.length + ")");
+        }
+        int k = indices.length;
+        for (int i = 0; i < k; i++) {
+            if (indices[i] < 0 || indices[i] >= n) {
+                throw new IndexOutOfBoundsException("indices[" + i + "] = " + indices[i]);
+            }
+        }
+
+        if (k < denseBatchThreshold()) {
+            for (int i = 0; i < k; i++) {
+                internalAdd(indices[i], deltas[i]);
+            }
+            return;
+        }
+
+        // узлы линейны по значениям, поэтому дерево из дельт можно просто прибавить
+        int[] acc = new int[local.length];
+        int[] accTop = new int[blocks + 1];
+        for (int i = 0; i < k; i++) {
+            acc[indices[i]] += deltas[i];
+            total += deltas[i];
+        }
+        linearBuild(acc, accTop);
+        for (int i = 0; i < local.length; i++) {
+            local[i] += acc[i];
+        }
+        for (int i = 1; i <= blocks; i++) {
+            top[i] += accTop[i];
+        }
+    }
+
+    /** Размер пакета, начиная с которого линейный проход дешевле k проходов по O(log n). */
+    private int denseBatchThreshold() {
+        int logN = 32 - Integer.numberOfLeadingZeros(n);
+        return n / logN;
+    }
+
+    public int prefixSum(int index) {
+        if (index < 0 || index >= n) {
+            throw new IndexOutOfBoundsException(
+                    "index = " + index + ", допустимый диапазон: 0.." + (n - 1)
+            );
+        }
+
+        return (int) walkPrefix(index);
+    }
+
+    /* сумма элементов 0..index в long (int-результат prefixSum заворачивается так же, как в FenwickTree) */
+    private long walkPrefix(int index) {
+        int base = index & ~BLOCK_MASK;
+        int p = (index & BLOCK_MASK) + 1;
+        long res = 0;
+        while (p > 0) {
+            res += local[base + p - 1];
+            p -= p & -p;
+        }
+        int q = index >>> BLOCK_SHIFT; // целые блоки перед текущим
+        while (q > 0) {
+            res += top[q];
+            q -= q & -q;
+        }
+        return res;
+    }
+
+    public int rangeSum(int left, int right) {
+        if (left > right) {
+            throw new IllegalArgumentException("left > right");
+        }
+        if (left < 0 || right >= n) {
+            throw new IndexOutOfBoundsException("left = " + left + ", right = " + right);
+        }
+        if (left == 0) {
+            return prefixSum(right);
+        }
+        return prefixSum(right) - prefixSum(left - 1);
+    }
+
+    /**
+     * Пакет префиксных сумм: out[k] = prefixSum(indices[k]) в long. При большом пакете
+     * все префиксы считаются одним линейным проходом; без scratch он выделяет long[n + 1].
+     */
+    public void prefixSums(int[] indices, long[] out) {
+        prefixSums(indices, out, null);
+    }
+
+    /** То же с буфером scratch длины не меньше n + 1 (null — выделить при необходимости). */
+    public void prefixSums(int[] indices, long[] out, long[] scratch) {
+        if (indices == null || out == null) {
+            throw new IllegalArgumentException("indices or out is null");
+        }
+        checkScratch(scratch);
+        if (out.length < indices.length) {
+            throw new IllegalArgumentException(
+                    "out length (" + out.length + ") < queries (" + indices.length + ")");
+        }
+        int q = indices.length;
+        for (int k = 0; k < q; k++) {
+            if (indices[k] < 0 || indices[k] >= n) {
+                throw new IndexOutOfBoundsException("indices[" + k + "] = " + indices[k]);
+            }
+        }
+
+        if (q < denseBatchThreshold()) {
+            for (int k = 0; k < q; k++) {
+                out[k] = walkPrefix(indices[k]);
+            }
+            return;
+        }
+
+        long[] prefix = linearPrefixes(scratch);
+        for (int k = 0; k < q; k++) {
+            out[k] = prefix[indices[k] + 1];
+        }
+    }
+
+    /** Пакет сумм на отрезках: out[k] = rangeSum(lefts[k], rights[k]) в long. */
+    public void rangeSums(int[] lefts, int[] rights, long[] out) {
+        rangeSums(lefts, rights, out, null);
+    }
+
+    /** То же с буфером scratch длины не меньше n + 1 (null — выделить при необходимости). */
+    public void rangeSums(int[] lefts, int[] rights, long[] out, long[] scratch) {
+        if (lefts == null || rights == null || out == null) {
+            throw new IllegalArgumentException("lefts, rights or out is null");
+        }
+        checkScratch(scratch);
+        if (lefts.length != rights.length) {
+            throw new IllegalArgumentException(
+                    "lefts length (" + lefts.length + ") != rights length (" + rights.length + ")");
+        }
+        if (out.length < lefts.length) {
+            throw new IllegalArgumentException(
+                    "out length (" + out.length + ") < queries (" + lefts.length + ")");
+        }
+        int q = lefts.length;
+        for (int k = 0; k < q; k++) {
+            if (lefts[k] > rights[k]) {
+                throw new IllegalArgumentException("lefts[" + k + "] > rights[" + k + "]");
+            }
+            if (lefts[k] < 0 || rights[k] >= n) {
+                throw new IndexOutOfBoundsException(
+                        "lefts[" + k + "] = " + lefts[k] + ", rights[" + k + "] = " + rights[k]);
+            }
+        }
+
+        if (2L * q < denseBatchThreshold()) {
+            for (int k = 0; k < q; k++) {
+                long lo = lefts[k] == 0 ? 0 : walkPrefix(lefts[k] - 1);
+                out[k] = walkPrefix(rights[k]) - lo;
+            }
+            return;
+        }
+
+        long[] prefix = linearPrefixes(scratch);
+        for (int k = 0; k < q; k++) {
+            out[k] = prefix[rights[k] + 1] - prefix[lefts[k]];
+        }
+    }
+
+    private void checkScratch(long[] scratch) {
+        if (scratch != null && scratch.length < n + 1) {
+            throw new IllegalArgumentException(
+                    "scratch length (" + scratch.length + ") < n + 1 (" + (n + 1) + ")");
+        }
+    }
+
+    /*
+     * prefix[i] — сумма первых i элементов, i в 0..n. Внутри блока с началом base
+     * prefix[base + p] = prefix[base + p - lowbit(p)] + узел p блока, а prefix[base] уже посчитан.
+     */
+    private long[] linearPrefixes(long[] scratch) {
+        long[] prefix = scratch != null ? scratch : new long[n + 1];
+        prefix[0] = 0;
+        for (int base = 0; base < n; base += BLOCK) {
+            int last = Math.min(BLOCK, n - base);
+            for (int p = 1; p <= last; p++) {
+                prefix[base + p] = prefix[base + p - (p & -p)] + local[base + p - 1];
+            }
+        }
+        return prefix;
+    }
+
+    public int lowerBound(int target) {
+        if (target <= 0) { return 0; }
+
+        if (target > total) { return -1; }
+
+        return descend(target);
+    }
+
+    /** Спуск сначала по верхнему дереву, затем внутри блока: первый индекс с префиксной суммой >= target. */
+    private int descend(int target) {
+        // спуск по верхнему дереву: сколько целых блоков имеют сумму < target
+        int b = 0;
+        int sum = 0;
+        for (int bit = Integer.highestOneBit(blocks); bit != 0; bit >>= 1) {
+            int next = b + bit;
+            if (next <= blocks && sum + top[next] < target) {
+                sum += top[next];
+                b = next;
+            }
+        }
+
+        // спуск внутри блока b
+        int base = b << BLOCK_SHIFT;
+        int p = 0;
+        for (int bit = BLOCK >> 1; bit != 0; bit >>= 1) {
+            int next = p + bit;
+            if (sum + local[base + next - 1] < target) {
+                sum += local[base + next - 1];
+                p = next;
+            }
+        }
+        return Math.min(base + p, n - 1);
+    }
+
+    // порядковые статистики, как в FenwickTree: дерево как таблица частот
+
+    /** Сумма всех элементов, O(1). */
+    public int total() {
+        return total;
+    }
+
+    /** Сколько элементов строго меньше value. */
+    public int rank(int value) {
+        if (value <= 0) {
+            return 0;
+        }
+        if (value >= n) {
+            return total;
+        }
+        return prefixSum(value - 1);
+    }
+
+    /** k-й по возрастанию элемент, k в 0..total-1. */
+    public int select(int k) {
+        if (k < 0 || k >= total) {
+            throw new IndexOutOfBoundsException("k = " + k + ", total = " + total);
+        }
+        return descend(k + 1);
+    }
+
+    /** Первый индекс, префиксная сумма которого строго больше target; -1, если такого нет. */
+    public int upperBound(int target) {
+        if (target < 0) {
+            return 0;
+        }
+        if (target >= total) {
+            return -1;
+        }
+        return descend(target + 1);
+    }
+
+    /** Сколько элементов со значением в [lo, hi]. */
+    public int countInRange(int lo, int hi) {
+        return rangeSum(lo, hi);
+    }
+
+    /** Нижняя медиана. */
+    public int median() {
+        if (total <= 0) {
+            throw new IllegalStateException("empty frequency table");
+        }
+        return select((total - 1) / 2);
+    }
+
+    /** Квантиль q в [0, 1]: наименьшее значение, до которого включительно набирается доля q элементов. */
+    public int quantile(double q) {
+        if (!(q >= 0.0 && q <= 1.0)) {
+            throw new IllegalArgumentException("q = " + q);
+        }
+        if (total <= 0) {
+            throw new IllegalStateException("empty frequency table");
+        }
+        long k = (long) Math.ceil(q * total) - 1;
+        if (k < 0) {
+            k = 0;
+        }
+        return select((int) k);
+    }
+
+    public int get(int index) {
+        if (index < 0 || index >= n) {
+            throw new IndexOutOfBoundsException("index = " + index);
+        }
+        int base = index & ~BLOCK_MASK;
+        int pos = (index & BLOCK_MASK) + 1;
+        int res = local[base + pos - 1];
+        int stop = pos - (pos & -pos);
+        for (int i = pos - 1; i > stop; i -= i & -i) {
+            res -= local[base + i - 1];
+        }
+        return res;
+    }
+
+    public int size() {
+        return n;
+    }
+
+    public int[] getArrSnapshot() {
+        int[] copy = new int[n];
+        for (int i = 0; i < n; i++) {
+            copy[i] = get(i);
+        }
+        return copy;
+    }
+
+    /** Узлы классического дерева tree[0..n] для тех же данных (для визуализации). */
+    public int[] getTreeSnapshot() {
+        int[] copy = new int[n + 1];
+        for (int i = 0; i < n; i++) {
+            copy[i + 1] = get(i);
+        }
+        for (int i = 1; i <= n; i++) {
+            int j = i + (i & -i);
+            if (j <= n) {
+                copy[j] += copy[i];
+            }
+        }
+        return copy;
+    }
+}
@@ -0,0 +1,149 @@
+package ds;
+
+import java.util.Arrays;
+
+/**
+ * Класс CompressedFenwickTree2D — двумерное дерево Фенвика со сжатием координат
+ * для почти пустых сеток.
+ * Методы:
+ *  - void update(int r, int c, long delta)
+ *  - long prefixSum(int r, int c)
+ *  - long rectSum(int r1, int c1, int r2, int c2)
+ *
+ * Ячейки, в которые будут приходить update, задаются заранее (офлайн).
+ * Каждая строка-узел i внешнего дерева хранит только отсортированные столбцы,
+ * которые в неё попадают, и своё одномерное дерево Фенвика над ними.
+ * Память — O(P log R) для P точек вместо R * C; операции — O(log R · log P).
+ * Запросы принимают любые ячейки сетки, update — только заранее заданные.
+ */
+public class CompressedFenwickTree2D {
+
+    private final int rows;
+    private final int cols;
+    private final int[] offsets;  // узел i занимает [offsets[i], offsets[i + 1]) в keys/tree
+    private final int[] keys;     // отсортированные столбцы узла
+    private final long[] tree;    // одномерные деревья узлов, позиция k узла -> offsets[i] + k - 1
+
+    public CompressedFenwickTree2D(int rows, int cols, int[] pointRows, int[] pointCols) {
+        if (rows <= 0 || cols <= 0) {
+            throw new IllegalArgumentException("rows and cols must be > 0");
+        }
+        if (pointRows == null || pointCols == null) {
+            throw new IllegalArgumentException("pointRows or pointCols is null");
+        }
+        if (pointRows.length != pointCols.length) {
+            throw new IllegalArgumentException(
+                    "pointRows length (" + pointRows.length + ") != pointCols length (" + pointCols.length + ")");
+        }
+        this.rows = rows;
+        this.cols = cols;
+
+        int p = pointRows.length;
+        for (int k = 0; k < p; k++) {
+            checkCell(pointRows[k], pointCols[k]);
+        }
+
+        // считаем, сколько столбцов попадёт в каждый узел, затем раскладываем (как CSR)
+        int[] counts = new int[rows + 2];
+        for (int k = 0; k < p; k++) {
+            for (int i = pointRows[k] + 1; i <= rows; i += i & -i) {
+                counts[i + 1]++;
+            }
+        }
+        for (int i = 1; i <= rows + 1; i++) {
+            counts[i] += counts[i - 1];
+        }
+        int[] raw = new int[counts[rows + 1]];
+        int[] fill = Arrays.copyOf(counts, rows + 1);
+        for (int k = 0; k < p; k++) {
+            for (int i = pointRows[k] + 1; i <= rows; i += i & -i) {
+                raw[fill[i]++] = pointCols[k];
+            }
+        }
+
+        // сортируем и убираем повторы внутри каждого узла
+        this.offsets = new int[rows + 2];
+        int size = 0;
+        for (int i = 1; i <= rows; i++) {
+            int from = counts[i];
+            int to = counts[i + 1];
+            Arrays.sort(raw, from, to);
+            offsets[i] = size;
+            for (int k = from; k < to; k++) {
+                if (k == from || raw[k] != raw[k - 1]) {
+                    raw[size++] = raw[k];
+                }
+            }
+        }
+        offsets[rows + 1] = size;
+        this.keys = Arrays.copyOf(raw, size);
+        this.tree = new long[size];
+    }
+
+    public void update(int r, int c, long delta) {
+        checkCell(r, c);
+        for (int i = r + 1; i <= rows; i += i & -i) {
+            int from = offsets[i];
+            int len = offsets[i + 1] - from;
+            int k = Arrays.binarySearch(keys, from, from + len, c);
+            if (k < 0) {
+                throw new IllegalArgumentException("cell (" + r + ", " + c + ") was not registered");
+            }
+            for (int j = k - from + 1; j <= len; j += j & -j) {
+                tree[from + j - 1] += delta;
+            }
+        }
+    }
+
+    /** Сумма на прямоугольнике [0..r] x [0..c]. */
+    public long prefixSum(int r, int c) {
+        checkCell(r, c);
+        return walk(r + 1, c);
+    }
+
+    public long rectSum(int r1, int c1, int r2, int c2) {
+        if (r1 > r2 || c1 > c2) {
+            throw new IllegalArgumentException("r1 > r2 or c1 > c2");
+        }
+        checkCell(r1, c1);
+        checkCell(r2, c2);
+        return walk(r2 + 1, c2) - walk(r1, c2) - walk(r2 + 1, c1 - 1) + walk(r1, c1 - 1);
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public int cols() {
+        return cols;
+    }
+
+    /** Сумма первых r строк (1-based граница) по столбцам 0..c (c = -1 — пусто). */
+    private long walk(int r, int c) {
+        long res = 0;
+        for (int i = r; i > 0; i -= i & -i) {
+            int from = offsets[i];
+            // число столбцов узла <= c
+            int lo = from;
+            int hi = offsets[i + 1];
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (keys[mid] <= c) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            for (int j = lo - from; j > 0; j -= j & -j) {
+                res += tree[from + j - 1];
+            }
+        }
+        return res;
+    }
+
+    private void checkCell(int r, int c) {
+        if (r < 0 || r >= rows || c < 0 || c >= cols) {
+            throw new IndexOutOfBoundsException("r = " + r + ", c = " + c);
+        }
+    }
+}
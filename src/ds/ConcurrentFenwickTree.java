@@ -0,0 +1,141 @@
+package ds;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Класс ConcurrentFenwickTree — потокобезопасное дерево Фенвика без блокировок.
+ * Методы:
+ *  - void build(long[] arr)
+ *  - void update(int index, long delta)
+ *  - long prefixSum(int index)
+ *  - long rangeSum(int left, int right)
+ *  - int lowerBound(long target)
+ *
+ * Каждый узел обновляется атомарным getAndAdd, поэтому update можно вызывать
+ * из многих потоков одновременно. Запросы читают узлы без блокировок и
+ * слабо согласованы: обновление, идущее параллельно с запросом, может быть
+ * учтено в нём частично (в одних узлах пути уже есть, в других ещё нет).
+ * После завершения всех update результаты точные.
+ * build не потокобезопасен относительно update и должен вызываться до публикации дерева.
+ */
+public class ConcurrentFenwickTree {
+
+    private final int n;
+    private final AtomicLongArray tree;
+
+    public ConcurrentFenwickTree(int n) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("n must be > 0");
+        }
+        this.n = n;
+        this.tree = new AtomicLongArray(n + 1); // индексы [1..n]
+    }
+
+    public void build(long[] input) {
+        if (input == null) {
+            throw new IllegalArgumentException("input is null");
+        }
+        if (input.length != n) {
+            throw new IllegalArgumentException(
+                    "input length (" + input.length + ") != n (" + n + ")");
+        }
+
+        long[] work = new long[n + 1];
+        System.arraycopy(input, 0, work, 1, n);
+        for (int i = 1; i <= n; i++) {
+            int j = i + (i & -i);
+            if (j <= n) {
+                work[j] += work[i];
+            }
+        }
+        for (int i = 0; i <= n; i++) {
+            tree.set(i, work[i]);
+        }
+    }
+
+    public void update(int index, long delta) {
+        if (index < 0 || index >= n) {
+            throw new IndexOutOfBoundsException("index = " + index);
+        }
+        int pos = index + 1;
+        while (pos <= n) {
+            tree.getAndAdd(pos, delta);
+            pos += pos & -pos;
+        }
+    }
+
+    public long prefixSum(int index) {
+        if (index < 0 || index >= n) {
+            throw new IndexOutOfBoundsException(
+                    "index = " + index + ", допустимый диапазон: 0.." + (n - 1)
+            );
+        }
+
+        int i = index + 1;
+        long res = 0;
+        while (i > 0) {
+            res += tree.get(i);
+            i -= i & -i;
+        }
+        return res;
+    }
+
+    public long rangeSum(int left, int right) {
+        if (left > right) {
+            throw new IllegalArgumentException("left > right");
+        }
+        if (left < 0 || right >= n) {
+            throw new IndexOutOfBoundsException("left = " + left + ", right = " + right);
+        }
+        if (left == 0) {
+            return prefixSum(right);
+        }
+        return prefixSum(right) - prefixSum(left - 1);
+    }
+
+    /**
+     * Спуск по степеням двойки на слабо согласованном снимке узлов:
+     * при параллельных update ответ соответствует одному из промежуточных состояний по каждому узлу.
+     */
+    public int lowerBound(long target) {
+        if (target <= 0) { return 0; }
+
+        long total = prefixSum(n - 1);
+        if (target > total) { return -1; }
+
+        int idx = 0;
+        int bit = Integer.highestOneBit(n);
+        long sum = 0;
+
+        while (bit != 0) {
+            int next = idx + bit;
+            if (next <= n) {
+                long node = tree.get(next);
+                if (sum + node < target) {
+                    sum += node;
+                    idx = next;
+                }
+            }
+            bit >>= 1;
+        }
+        // при гонке с уменьшающими update спуск может уйти за последний элемент
+        return Math.min(idx, n - 1);
+    }
+
+    public int size() {
+        return n;
+    }
+
+    /** Текущее значение узла tree[pos], pos в 1..n (без проверки границ). */
+    long node(int pos) {
+        return tree.get(pos);
+    }
+
+    public long[] getTreeSnapshot() {
+        long[] copy = new long[n + 1];
+        for (int i = 0; i <= n; i++) {
+            copy[i] = tree.get(i);
+        }
+        return copy;
+    }
+}
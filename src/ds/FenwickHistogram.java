@@ -0,0 +1,132 @@
+package ds;
+/**
+ * Класс FenwickHistogram — гистограмма задержек с лог-линейными бакетами
+ * (как в HdrHistogram), счётчики которой хранятся в LongFenwickTree.
+ * Методы:
+ *  - void recordValue(long value) / recordValue(long value, long count)
+ *  - long valueAtPercentile(double percentile)
+ *  - long getTotalCount()
+ *  - void merge(FenwickHistogram other)
+ *  - void reset()
+ *
+ * Значения 0..2^p - 1 попадают каждое в свой бакет; дальше каждый интервал
+ * [2^m, 2^(m+1)) делится на 2^p бакетов одинаковой ширины, так что относительная
+ * погрешность не больше 2^-p. Запись — один update за O(log buckets) без аллокаций,
+ * перцентиль — один спуск lowerBound по дереву.
+ */
+public class FenwickHistogram {
+
+    private final long highestTrackableValue;
+    private final int significantBits;
+    private final long subBucketMask;
+    private final LongFenwickTree counts;
+
+    /** Точность 2^-7 (< 1%). */
+    public FenwickHistogram(long highestTrackableValue) {
+        this(highestTrackableValue, 7);
+    }
+
+    public FenwickHistogram(long highestTrackableValue, int significantBits) {
+        if (highestTrackableValue <= 0) {
+            throw new IllegalArgumentException("highestTrackableValue must be > 0");
+        }
+        if (significantBits < 1 || significantBits > 20) {
+            throw new IllegalArgumentException("significantBits must be in 1..20");
+        }
+        this.highestTrackableValue = highestTrackableValue;
+        this.significantBits = significantBits;
+        this.subBucketMask = (1L << significantBits) - 1;
+        this.counts = new LongFenwickTree(bucketIndex(highestTrackableValue) + 1);
+    }
+
+    public void recordValue(long value) {
+        recordValue(value, 1);
+    }
+
+    public void recordValue(long value, long count) {
+        if (value < 0 || value > highestTrackableValue) {
+            throw new IllegalArgumentException(
+                    "value = " + value + ", допустимый диапазон: 0.." + highestTrackableValue);
+        }
+        if (count < 0) {
+            throw new IllegalArgumentException("count must be >= 0");
+        }
+        counts.update(bucketIndex(value), count);
+    }
+
+    /**
+     * Значение на перцентиле (0..100): верхняя граница бакета, в котором
+     * набирается доля percentile всех записей; для пустой гистограммы — 0.
+     */
+    public long valueAtPercentile(double percentile) {
+        if (!(percentile >= 0.0 && percentile <= 100.0)) {
+            throw new IllegalArgumentException("percentile = " + percentile);
+        }
+        long total = counts.total();
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(percentile / 100.0 * total);
+        if (rank < 1) {
+            rank = 1;
+        }
+        return Math.min(bucketHighestValue(counts.lowerBound(rank)), highestTrackableValue);
+    }
+
+    public long getTotalCount() {
+        return counts.total();
+    }
+
+    public long getHighestTrackableValue() {
+        return highestTrackableValue;
+    }
+
+    public int getSignificantBits() {
+        return significantBits;
+    }
+
+    public int bucketCount() {
+        return counts.size();
+    }
+
+    /** Добавляет записи другой гистограммы с теми же параметрами, O(buckets). */
+    public void merge(FenwickHistogram other) {
+        if (other == null) {
+            throw new IllegalArgumentException("other is null");
+        }
+        if (other.highestTrackableValue != highestTrackableValue
+                || other.significantBits != significantBits) {
+            throw new IllegalArgumentException("histograms have different bucket layouts");
+        }
+        long[] merged = counts.getArrSnapshot();
+        long[] add = other.counts.getArrSnapshot();
+        for (int i = 0; i < merged.length; i++) {
+            merged[i] += add[i];
+        }
+        counts.build(merged);
+    }
+
+    public void reset() {
+        counts.build(new long[counts.size()]);
+    }
+
+    /** Индекс бакета для значения value >= 0. */
+    int bucketIndex(long value) {
+        if (value <= subBucketMask) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - significantBits;
+        return ((shift + 1) << significantBits) | (int) ((value >>> shift) & subBucketMask);
+    }
+
+    /** Наибольшее значение, попадающее в бакет index. */
+    long bucketHighestValue(int index) {
+        int block = index >>> significantBits;
+        if (block == 0) {
+            return index;
+        }
+        int shift = block - 1;
+        long low = ((subBucketMask + 1) | (index & subBucketMask)) << shift;
+        return low + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,335 @@
+package ds;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Класс FenwickJournal — журнал предзаписи (WAL) обновлений FenwickTree с групповой фиксацией.
+ * Методы:
+ *  - static FenwickJournal open(Path journal, Path checkpoint, int n, int batchRecords, long maxDelayMillis)
+ *  - void append(int index, int delta)
+ *  - void commit() / boolean commitIfDue()
+ *  - void checkpoint(FenwickTree tree)
+ *  - FenwickTree recover()
+ *
+ * Записи update(index, delta) копятся в буфере и сбрасываются на диск одним write + fsync,
+ * когда набралось batchRecords записей или с первой несброшенной прошло maxDelayMillis
+ * (проверяется в append и commitIfDue — для простоев его стоит вызывать по таймеру).
+ * Долговечны только записи, попавшие в commit. Если запись в файл упала на середине,
+ * недописанный хвост остаётся в буфере и уходит следующим commit.
+ *
+ * checkpoint пишет бинарный снимок дерева (FenwickTree.writeTo), переименовывает его
+ * атомарно, делает fsync каталога и только потом обнуляет журнал.
+ * И журнал, и файл снимка помечены номером эпохи: если сбой случился после записи снимка,
+ * но до обнуления журнала, старый журнал (эпоха меньше) при восстановлении пропускается.
+ */
+public class FenwickJournal implements Closeable {
+
+    private static final int MAGIC = 0x464E574A; // "FNWJ"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;   // magic, version, epoch
+    private static final int RECORD_BYTES = 8;    // index, delta
+    private static final int REPLAY_CHUNK = 1 << 16;
+
+    private final Path journalFile;
+    private final Path checkpointFile;
+    private final int n;
+    private final int batchRecords;
+    private final long maxDelayNanos;
+    private final FileChannel channel;
+    private final ByteBuffer pending;
+
+    private long epoch;
+    private int pendingRecords;
+    private boolean unsynced;    // в файл записано больше, чем подтверждено fsync
+    private long firstPendingNanos;
+
+    private FenwickJournal(Path journalFile, Path checkpointFile, int n, int batchRecords,
+                           long maxDelayNanos, FileChannel channel, long epoch) {
+        this.journalFile = journalFile;
+        this.checkpointFile = checkpointFile;
+        this.n = n;
+        this.batchRecords = batchRecords;
+        this.maxDelayNanos = maxDelayNanos;
+        this.channel = channel;
+        this.epoch = epoch;
+        this.pending = ByteBuffer.allocateDirect(batchRecords * RECORD_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Открывает (или создаёт) журнал дерева из n элементов.
+     * Недописанная последняя запись после сбоя отбрасывается.
+     */
+    public static FenwickJournal open(Path journal, Path checkpoint, int n,
+                                      int batchRecords, long maxDelayMillis) throws IOException {
+        if (journal == null || checkpoint == null) {
+            throw new IllegalArgumentException("journal or checkpoint path is null");
+        }
+        if (n <= 0) {
+            throw new IllegalArgumentException("n must be > 0");
+        }
+        if (batchRecords <= 0) {
+            throw new IllegalArgumentException("batchRecords must be > 0");
+        }
+        if (maxDelayMillis < 0) {
+            throw new IllegalArgumentException("maxDelayMillis must be >= 0");
+        }
+        FileChannel ch = FileChannel.open(journal,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long epoch;
+            if (ch.size() < HEADER_BYTES) {
+                epoch = 0;
+                writeHeader(ch, epoch);
+            } else {
+                epoch = readHeader(ch, journal);
+                long records = (ch.size() - HEADER_BYTES) / RECORD_BYTES;
+                ch.truncate(HEADER_BYTES + records * RECORD_BYTES);
+            }
+            ch.position(ch.size());
+            return new FenwickJournal(journal, checkpoint, n, batchRecords,
+                    maxDelayMillis * 1_000_000L, ch, epoch);
+        } catch (IOException | RuntimeException e) {
+            ch.close();
+            throw e;
+        }
+    }
+
+    public synchronized void append(int index, int delta) throws IOException {
+        if (index < 0 || index >= n) {
+            throw new IndexOutOfBoundsException("index = " + index);
+        }
+        if (pending.remaining() < RECORD_BYTES) {
+            // буфер полон после неудачного commit: сначала дописываем хвост
+            commit();
+        }
+        if (pendingRecords == 0) {
+            firstPendingNanos = System.nanoTime();
+        }
+        pending.putInt(index);
+        pending.putInt(delta);
+        pendingRecords++;
+        if (pendingRecords >= batchRecords || System.nanoTime() - firstPendingNanos >= maxDelayNanos) {
+            commit();
+        }
+    }
+
+    /** Сбрасывает накопленные записи и делает fsync. */
+    public synchronized void commit() throws IOException {
+        if (pendingRecords == 0 && !unsynced) {
+            return;
+        }
+        pending.flip();
+        try {
+            while (pending.hasRemaining()) {
+                channel.write(pending);
+            }
+        } finally {
+            // записанный префикс уже в файле; недописанный хвост сдвигается в начало буфера,
+            // частично записанная запись считается несброшенной целиком
+            pending.compact();
+            pendingRecords = (pending.position() + RECORD_BYTES - 1) / RECORD_BYTES;
+            unsynced = true;
+        }
+        // при ошибке force флаг остаётся, и следующий commit повторит fsync
+        channel.force(false);
+        unsynced = false;
+    }
+
+    /** commit, если истекло окно задержки; для вызова по таймеру. */
+    public synchronized boolean commitIfDue() throws IOException {
+        if ((pendingRecords > 0 || unsynced) && System.nanoTime() - firstPendingNanos >= maxDelayNanos) {
+            commit();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Снимок дерева в файл checkpoint (через временный файл и атомарное переименование),
+     * затем журнал обнуляется. Дерево должно отражать все записи, переданные в append.
+     */
+    public synchronized void checkpoint(FenwickTree tree) throws IOException {
+        if (tree == null) {
+            throw new IllegalArgumentException("tree is null");
+        }
+        // снимок другого размера recover не примет, а журнал к тому времени уже обнулён
+        if (tree.size() != n) {
+            throw new IllegalArgumentException("tree size (" + tree.size() + ") != n (" + n + ")");
+        }
+        commit();
+        long next = epoch + 1;
+
+        Path tmp = checkpointFile.resolveSibling(checkpointFile.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer head = ByteBuffer.allocate(Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            head.putLong(next).flip();
+            while (head.hasRemaining()) {
+                out.write(head);
+            }
+            tree.writeTo(out);
+            out.force(true);
+        }
+        Files.move(tmp, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        // без fsync каталога переименование может не пережить сбой, а журнал уже будет обнулён
+        syncDirectory(checkpointFile.toAbsolutePath().getParent());
+
+        resetJournal(next);
+    }
+
+    /**
+     * Восстанавливает дерево: снимок (или пустое дерево из n элементов, если снимка нет)
+     * плюс записи журнала той же эпохи, применённые пакетами через updateBatch.
+     * Снимок другого размера считается чужим и не принимается.
+     */
+    public synchronized FenwickTree recover() throws IOException {
+        commit();
+        FenwickTree tree;
+        long checkpointEpoch = 0;
+        if (Files.exists(checkpointFile)) {
+            try (FileChannel in = FileChannel.open(checkpointFile, StandardOpenOption.READ)) {
+                ByteBuffer head = ByteBuffer.allocate(Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                while (head.hasRemaining()) {
+                    if (in.read(head) < 0) {
+                        throw new IOException("checkpoint is too short: " + checkpointFile);
+                    }
+                }
+                checkpointEpoch = head.flip().getLong();
+                tree = FenwickTree.readFrom(in);
+            }
+            if (tree.size() != n) {
+                throw new IOException("checkpoint size (" + tree.size() + ") != n (" + n + "): " + checkpointFile);
+            }
+        } else {
+            tree = new FenwickTree(n);
+        }
+
+        if (checkpointEpoch == epoch) {
+            replay(tree);
+        } else if (checkpointEpoch < epoch) {
+            throw new IOException("checkpoint epoch " + checkpointEpoch + " is older than journal epoch " + epoch);
+        } else {
+            // сбой между снимком и обнулением журнала: журнал уже учтён в снимке, доводим обнуление
+            resetJournal(checkpointEpoch);
+        }
+        return tree;
+    }
+
+    public synchronized long epoch() {
+        return epoch;
+    }
+
+    public int size() {
+        return n;
+    }
+
+    public Path journalFile() {
+        return journalFile;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            commit();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void resetJournal(long nextEpoch) throws IOException {
+        channel.truncate(0);
+        writeHeader(channel, nextEpoch);
+        channel.position(HEADER_BYTES);
+        epoch = nextEpoch;
+    }
+
+    private void replay(FenwickTree tree) throws IOException {
+        int[] indices = new int[REPLAY_CHUNK];
+        int[] deltas = new int[REPLAY_CHUNK];
+        ByteBuffer buf = ByteBuffer.allocateDirect(REPLAY_CHUNK * RECORD_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        long pos = HEADER_BYTES;
+        long end = channel.size();
+        while (pos < end) {
+            buf.clear();
+            buf.limit((int) Math.min(buf.capacity(), end - pos));
+            while (buf.hasRemaining()) {
+                int read = channel.read(buf, pos + buf.position());
+                if (read < 0) {
+                    break;
+                }
+            }
+            buf.flip();
+            int count = buf.remaining() / RECORD_BYTES;
+            if (count == 0) {
+                break;
+            }
+            for (int k = 0; k < count; k++) {
+                indices[k] = buf.getInt();
+                deltas[k] = buf.getInt();
+            }
+            if (count == REPLAY_CHUNK) {
+                tree.updateBatch(indices, deltas);
+            } else {
+                int[] lastIndices = new int[count];
+                int[] lastDeltas = new int[count];
+                System.arraycopy(indices, 0, lastIndices, 0, count);
+                System.arraycopy(deltas, 0, lastDeltas, 0, count);
+                tree.updateBatch(lastIndices, lastDeltas);
+            }
+            pos += (long) count * RECORD_BYTES;
+        }
+    }
+
+    private static void syncDirectory(Path dir) throws IOException {
+        if (dir == null) {
+            return;
+        }
+        try (FileChannel ch = FileChannel.open(dir, StandardOpenOption.READ)) {
+            ch.force(true);
+        } catch (IOException e) {
+            // Windows не открывает каталог как файл; там переименование и так фиксируется ФС
+            if (!System.getProperty("os.name", "").startsWith("Windows")) {
+                throw e;
+            }
+        }
+    }
+
+    private static void writeHeader(FileChannel ch, long epoch) throws IOException {
+        ByteBuffer head = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        head.putInt(MAGIC);
+        head.putInt(VERSION);
+        head.putLong(epoch);
+        head.flip();
+        long pos = 0;
+        while (head.hasRemaining()) {
+            pos += ch.write(head, pos);
+        }
+        ch.force(true);
+    }
+
+    private static long readHeader(FileChannel ch, Path file) throws IOException {
+        ByteBuffer head = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        while (head.hasRemaining()) {
+            if (ch.read(head, head.position()) < 0) {
+                throw new IOException("journal header is truncated: " + file);
+            }
+        }
+        head.flip();
+        if (head.getInt() != MAGIC) {
+            throw new IOException("bad journal magic in " + file);
+        }
+        int version = head.getInt();
+        if (version != VERSION) {
+            throw new IOException("unsupported journal version " + version + " in " + file);
+        }
+        return head.getLong();
+    }
+}
@@ -1,4 +1,17 @@
 package ds;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+
 /**
  * Класс FenwickTree
  * Методы:
@@ -7,20 +20,43 @@ package ds;
  *  - int prefixSum(int index)
  *  - int rangeSum(int left, int right)
  *  - int lowerBound(int target)
+ *  - int get(int index)
+ *  - void updateBatch(int[] indices, int[] deltas)
+ *  - void prefixSums(int[] indices, long[] out[, long[] scratch])
+ *  - void rangeSums(int[] lefts, int[] rights, long[] out[, long[] scratch])
+ *  - void append(int value)
+ *  - int rank(int value), int select(int k), int upperBound(int target)
+ *  - int countInRange(int lo, int hi), int median(), int quantile(double q)
+ *  - void writeTo(OutputStream / WritableByteChannel), static FenwickTree readFrom(InputStream / ReadableByteChannel)
+ *
+ * В компактном режиме (compact = true) копия arr не хранится, остаётся только tree[]:
+ * значение элемента восстанавливается за O(log n), весь массив — обратным проходом build за O(n).
  */
 public class FenwickTree {
 
+    // бинарный снимок: заголовок SNAPSHOT_HEADER байт, затем tree[1..n] и (если есть) arr[0..n-1], little-endian
+    private static final int SNAPSHOT_MAGIC = 0x464E5753; // "FNWS"
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final int SNAPSHOT_HEADER = 16;
+    private static final int SNAPSHOT_HAS_ARR = 1;
+    private static final int IO_BUFFER = 1 << 16;
+
     private int n;
     private int[] tree;
-    private int[] arr;
+    private int[] arr;          // null в компактном режиме
+    private int total;          // сумма всех элементов
 
     public FenwickTree(int n) {
+        this(n, false);
+    }
+
+    public FenwickTree(int n, boolean compact) {
         if (n <= 0) {
             throw new IllegalArgumentException("n must be > 0");
         }
         this.n = n;
-        this.tree = new int[n + 1]; // индексы [1..n]
-        this.arr = new int[n];      // arr[0..n-1]
+        this.tree = new int[n + 1];           // индексы [1..n]
+        this.arr = compact ? null : new int[n]; // arr[0..n-1]
     }
 
     public void build(int[] input) {
@@ -32,16 +68,17 @@ public class FenwickTree {
                     "input length (" + input.length + ") != n (" + n + ")");
         }
 
-        for (int i = 0; i < n; i++) {
-            arr[i] = input[i];
-        }
-
-        for (int i = 0; i <= n; i++) {
-            tree[i] = 0;
+        if (arr != null) {
+            for (int i = 0; i < n; i++) {
+                arr[i] = input[i];
+            }
         }
 
+        tree[0] = 0;
+        total = 0;
         for (int i = 0; i < n; i++) {
-            tree[i + 1] = arr[i];
+            tree[i + 1] = input[i];
+            total += input[i];
         }
 
         for (int i = 1; i <= n; i++) {
@@ -56,8 +93,66 @@ public class FenwickTree {
         if (index < 0 || index >= n) {
             throw new IndexOutOfBoundsException("index = " + index);
         }
-        arr[index] += delta;
+        if (arr != null) {
+            arr[index] += delta;
+        }
         internalAdd(index + 1, delta);
+        total += delta;
+    }
+
+    /**
+     * Пакетное обновление: deltas[k] прибавляется к элементу indices[k], повторы индексов допустимы.
+     * Небольшой пакет применяется обычными проходами по O(log n), большой (от ~n / log n
+     * обновлений) — суммированием дельт в одном массиве и линейным проходом как в build, за O(n + k).
+     * Индексы проверяются до изменений: при ошибке дерево не меняется.
+     */
+    public void updateBatch(int[] indices, int[] deltas) {
+        if (indices == null || deltas == null) {
+            throw new IllegalArgumentException("indices or deltas is null");
+        }
+        if (indices.length != deltas.length) {
+            throw new IllegalArgumentException(
+                    "indices length (" + indices.length + ") != deltas length (" + deltas.length + ")");
+        }
+        int k = indices.length;
+        for (int i = 0; i < k; i++) {
+            if (indices[i] < 0 || indices[i] >= n) {
+                throw new IndexOutOfBoundsException("indices[" + i + "] = " + indices[i]);
+            }
+        }
+
+        if (k < denseBatchThreshold()) {
+            for (int i = 0; i < k; i++) {
+                if (arr != null) {
+                    arr[indices[i]] += deltas[i];
+                }
+                internalAdd(indices[i] + 1, deltas[i]);
+                total += deltas[i];
+            }
+            return;
+        }
+
+        int[] acc = new int[n + 1];
+        for (int i = 0; i < k; i++) {
+            if (arr != null) {
+                arr[indices[i]] += deltas[i];
+            }
+            acc[indices[i] + 1] += deltas[i];
+            total += deltas[i];
+        }
+        for (int i = 1; i <= n; i++) {
+            int j = i + (i & -i);
+            if (j <= n) {
+                acc[j] += acc[i];
+            }
+            tree[i] += acc[i];
+        }
+    }
+
+    /** Размер пакета, начиная с которого линейный проход дешевле k проходов по O(log n). */
+    private int denseBatchThreshold() {
+        int logN = 32 - Integer.numberOfLeadingZeros(n);
+        return n / logN;
     }
 
     public int prefixSum(int index) {
@@ -90,6 +185,123 @@ public class FenwickTree {
         return prefixSum(right) - prefixSum(left - 1);
     }
 
+    /**
+     * Пакет префиксных сумм: out[k] = prefixSum(indices[k]), сумма считается в long.
+     * При небольшом числе запросов — независимые проходы без выделения памяти;
+     * когда запросов порядка n / log n и больше, все префиксные суммы считаются
+     * одним линейным проходом (P[i] = P[i - lowbit(i)] + tree[i]) и ответы берутся из него.
+     * Этот линейный путь выделяет long[n + 1] на каждый вызов; без аллокаций —
+     * перегрузка с буфером scratch.
+     */
+    public void prefixSums(int[] indices, long[] out) {
+        prefixSums(indices, out, null);
+    }
+
+    /**
+     * То же с буфером scratch длины не меньше n + 1 под линейный путь (null — выделить при необходимости).
+     */
+    public void prefixSums(int[] indices, long[] out, long[] scratch) {
+        if (indices == null || out == null) {
+            throw new IllegalArgumentException("indices or out is null");
+        }
+        checkScratch(scratch);
+        if (out.length < indices.length) {
+            throw new IllegalArgumentException(
+                    "out length (" + out.length + ") < queries (" + indices.length + ")");
+        }
+        int q = indices.length;
+        for (int k = 0; k < q; k++) {
+            if (indices[k] < 0 || indices[k] >= n) {
+                throw new IndexOutOfBoundsException("indices[" + k + "] = " + indices[k]);
+            }
+        }
+
+        if (q < denseBatchThreshold()) {
+            for (int k = 0; k < q; k++) {
+                out[k] = walkPrefix(indices[k] + 1);
+            }
+            return;
+        }
+
+        long[] prefix = linearPrefixes(scratch);
+        for (int k = 0; k < q; k++) {
+            out[k] = prefix[indices[k] + 1];
+        }
+    }
+
+    /**
+     * Пакет сумм на отрезках: out[k] = rangeSum(lefts[k], rights[k]), сумма считается в long.
+     * Как и prefixSums, на линейном пути выделяет long[n + 1].
+     */
+    public void rangeSums(int[] lefts, int[] rights, long[] out) {
+        rangeSums(lefts, rights, out, null);
+    }
+
+    /** То же с буфером scratch длины не меньше n + 1 (null — выделить при необходимости). */
+    public void rangeSums(int[] lefts, int[] rights, long[] out, long[] scratch) {
+        if (lefts == null || rights == null || out == null) {
+            throw new IllegalArgumentException("lefts, rights or out is null");
+        }
+        checkScratch(scratch);
+        if (lefts.length != rights.length) {
+            throw new IllegalArgumentException(
+                    "lefts length (" + lefts.length + ") != rights length (" + rights.length + ")");
+        }
+        if (out.length < lefts.length) {
+            throw new IllegalArgumentException(
+                    "out length (" + out.length + ") < queries (" + lefts.length + ")");
+        }
+        int q = lefts.length;
+        for (int k = 0; k < q; k++) {
+            if (lefts[k] > rights[k]) {
+                throw new IllegalArgumentException("lefts[" + k + "] > rights[" + k + "]");
+            }
+            if (lefts[k] < 0 || rights[k] >= n) {
+                throw new IndexOutOfBoundsException(
+                        "lefts[" + k + "] = " + lefts[k] + ", rights[" + k + "] = " + rights[k]);
+            }
+        }
+
+        // два прохода на запрос; в long, чтобы 2 * q не переполнился при q > 2^30
+        if (2L * q < denseBatchThreshold()) {
+            for (int k = 0; k < q; k++) {
+                out[k] = walkPrefix(rights[k] + 1) - walkPrefix(lefts[k]);
+            }
+            return;
+        }
+
+        long[] prefix = linearPrefixes(scratch);
+        for (int k = 0; k < q; k++) {
+            out[k] = prefix[rights[k] + 1] - prefix[lefts[k]];
+        }
+    }
+
+    private long walkPrefix(int i) {
+        long res = 0;
+        while (i > 0) {
+            res += tree[i];
+            i -= i & -i;
+        }
+        return res;
+    }
+
+    private void checkScratch(long[] scratch) {
+        if (scratch != null && scratch.length < n + 1) {
+            throw new IllegalArgumentException(
+                    "scratch length (" + scratch.length + ") < n + 1 (" + (n + 1) + ")");
+        }
+    }
+
+    /** prefix[i] — сумма первых i элементов, i в 0..n; пишет в scratch, если он есть. */
+    private long[] linearPrefixes(long[] scratch) {
+        long[] prefix = scratch != null ? scratch : new long[n + 1];
+        prefix[0] = 0;
+        for (int i = 1; i <= n; i++) {
+            prefix[i] = prefix[i - (i & -i)] + tree[i];
+        }
+        return prefix;
+    }
+
     private void internalAdd(int pos, int delta) {
         while (pos <= n) {
             tree[pos] += delta;
@@ -102,9 +314,13 @@ public class FenwickTree {
 
         if (target <= 0) { return 0; }
 
-        int total = prefixSum(n - 1);
         if (target > total) { return -1; }
 
+        return descend(target);
+    }
+
+    /** Спуск по степеням двойки: первый индекс, префиксная сумма которого >= target. */
+    private int descend(int target) {
         int idx = 0;
         int bit = Integer.highestOneBit(n);
         int sum = 0;
@@ -118,9 +334,240 @@ public class FenwickTree {
             bit >>= 1;
         }
 
-        int arrayIndex = idx - 1;
-        if (arrayIndex < 0) arrayIndex = 0;
-        return arrayIndex;
+        // idx — последняя 1-based позиция с суммой < target, ответ — следующая (0-based idx)
+        return idx;
+    }
+
+    // порядковые статистики: дерево как таблица частот, arr[v] — сколько раз встретилось значение v
+
+    /** Сумма всех элементов (число элементов в таблице частот), O(1). */
+    public int total() {
+        return total;
+    }
+
+    /** Сколько элементов строго меньше value. */
+    public int rank(int value) {
+        if (value <= 0) {
+            return 0;
+        }
+        if (value >= n) {
+            return total;
+        }
+        return prefixSum(value - 1);
+    }
+
+    /** k-й по возрастанию элемент, k в 0..total-1. */
+    public int select(int k) {
+        if (k < 0 || k >= total) {
+            throw new IndexOutOfBoundsException("k = " + k + ", total = " + total);
+        }
+        return descend(k + 1);
+    }
+
+    /** Первый индекс, префиксная сумма которого строго больше target; -1, если такого нет. */
+    public int upperBound(int target) {
+        if (target < 0) {
+            return 0;
+        }
+        if (target >= total) {
+            return -1;
+        }
+        return descend(target + 1);
+    }
+
+    /** Сколько элементов со значением в [lo, hi]. */
+    public int countInRange(int lo, int hi) {
+        return rangeSum(lo, hi);
+    }
+
+    /** Нижняя медиана. */
+    public int median() {
+        if (total <= 0) {
+            throw new IllegalStateException("empty frequency table");
+        }
+        return select((total - 1) / 2);
+    }
+
+    /** Квантиль q в [0, 1]: наименьшее значение, до которого включительно набирается доля q элементов. */
+    public int quantile(double q) {
+        if (!(q >= 0.0 && q <= 1.0)) {
+            throw new IllegalArgumentException("q = " + q);
+        }
+        if (total <= 0) {
+            throw new IllegalStateException("empty frequency table");
+        }
+        long k = (long) Math.ceil(q * total) - 1;
+        if (k < 0) {
+            k = 0;
+        }
+        return select((int) k);
+    }
+
+    /**
+     * Значение arr[index]. В компактном режиме — сумма tree[index + 1]
+     * минус узлы, покрывающие (index + 1 - lowbit, index], за O(log n).
+     */
+    public int get(int index) {
+        if (index < 0 || index >= n) {
+            throw new IndexOutOfBoundsException("index = " + index);
+        }
+        if (arr != null) {
+            return arr[index];
+        }
+        int pos = index + 1;
+        int res = tree[pos];
+        int stop = pos - (pos & -pos);
+        int i = pos - 1;
+        while (i > stop) {
+            res -= tree[i];
+            i -= i & -i;
+        }
+        return res;
+    }
+
+    /**
+     * Добавляет элемент в конец за амортизированные O(log n) без перестройки:
+     * новый узел tree[n + 1] = value + сумма его детей, а дети уже посчитаны.
+     */
+    public void append(int value) {
+        ensureCapacity(n + 1);
+        int pos = n + 1;
+        int node = value;
+        int stop = pos - (pos & -pos);
+        for (int i = pos - 1; i > stop; i -= i & -i) {
+            node += tree[i];
+        }
+        tree[pos] = node;
+        if (arr != null) {
+            arr[n] = value;
+        }
+        n++;
+        total += value;
+    }
+
+    /** Резервирует место под needed элементов; растёт удвоением, как SimpleArrayList. */
+    public void ensureCapacity(int needed) {
+        if (needed <= tree.length - 1) {
+            return;
+        }
+        int newCap = (tree.length - 1) * 2;
+        if (newCap < needed) {
+            newCap = needed;
+        }
+        tree = Arrays.copyOf(tree, newCap + 1);
+        if (arr != null) {
+            arr = Arrays.copyOf(arr, newCap);
+        }
+    }
+
+    // бинарный снимок состояния
+
+    /** Пишет снимок в поток; поток не закрывается. */
+    public void writeTo(OutputStream out) throws IOException {
+        writeTo(Channels.newChannel(out));
+    }
+
+    /**
+     * Пишет снимок в канал: заголовок (magic, version, n, ширина элемента, флаги),
+     * затем узлы и arr сырыми int блоками через IntBuffer, без поэлементного кодирования.
+     */
+    public void writeTo(WritableByteChannel channel) throws IOException {
+        if (channel == null) {
+            throw new IllegalArgumentException("channel is null");
+        }
+        ByteBuffer buf = ByteBuffer.allocateDirect(IO_BUFFER).order(ByteOrder.LITTLE_ENDIAN);
+        buf.putInt(SNAPSHOT_MAGIC);
+        buf.putInt(SNAPSHOT_VERSION);
+        buf.putInt(n);
+        buf.put((byte) Integer.BYTES);
+        buf.put((byte) (arr != null ? SNAPSHOT_HAS_ARR : 0));
+        buf.putShort((short) 0);
+        buf.flip();
+        writeFully(channel, buf);
+
+        writeInts(channel, buf, tree, 1, n);
+        if (arr != null) {
+            writeInts(channel, buf, arr, 0, n);
+        }
+    }
+
+    public static FenwickTree readFrom(InputStream in) throws IOException {
+        return readFrom(Channels.newChannel(in));
+    }
+
+    /** Читает снимок, записанный writeTo; без arr в снимке дерево восстанавливается компактным. */
+    public static FenwickTree readFrom(ReadableByteChannel channel) throws IOException {
+        if (channel == null) {
+            throw new IllegalArgumentException("channel is null");
+        }
+        ByteBuffer buf = ByteBuffer.allocateDirect(IO_BUFFER).order(ByteOrder.LITTLE_ENDIAN);
+        buf.limit(SNAPSHOT_HEADER);
+        readFully(channel, buf);
+        buf.flip();
+        if (buf.getInt() != SNAPSHOT_MAGIC) {
+            throw new IOException("bad snapshot magic");
+        }
+        int version = buf.getInt();
+        if (version != SNAPSHOT_VERSION) {
+            throw new IOException("unsupported snapshot version " + version);
+        }
+        int n = buf.getInt();
+        int width = buf.get();
+        int flags = buf.get();
+        if (n <= 0) {
+            throw new IOException("corrupted snapshot: n = " + n);
+        }
+        if (width != Integer.BYTES) {
+            throw new IOException("unsupported element width " + width);
+        }
+
+        FenwickTree t = new FenwickTree(n, (flags & SNAPSHOT_HAS_ARR) == 0);
+        readInts(channel, buf, t.tree, 1, n);
+        if (t.arr != null) {
+            readInts(channel, buf, t.arr, 0, n);
+        }
+        t.total = (int) t.walkPrefix(n);
+        return t;
+    }
+
+    private static void writeInts(WritableByteChannel channel, ByteBuffer buf,
+                                  int[] src, int from, int count) throws IOException {
+        IntBuffer ints = buf.clear().asIntBuffer();
+        int chunk = ints.capacity();
+        for (int off = 0; off < count; off += chunk) {
+            int len = Math.min(chunk, count - off);
+            ints.clear();
+            ints.put(src, from + off, len);
+            buf.clear().limit(len * Integer.BYTES);
+            writeFully(channel, buf);
+        }
+    }
+
+    private static void readInts(ReadableByteChannel channel, ByteBuffer buf,
+                                 int[] dst, int from, int count) throws IOException {
+        IntBuffer ints = buf.clear().asIntBuffer();
+        int chunk = ints.capacity();
+        for (int off = 0; off < count; off += chunk) {
+            int len = Math.min(chunk, count - off);
+            buf.clear().limit(len * Integer.BYTES);
+            readFully(channel, buf);
+            ints.clear();
+            ints.get(dst, from + off, len);
+        }
+    }
+
+    private static void writeFully(WritableByteChannel channel, ByteBuffer buf) throws IOException {
+        while (buf.hasRemaining()) {
+            channel.write(buf);
+        }
+    }
+
+    private static void readFully(ReadableByteChannel channel, ByteBuffer buf) throws IOException {
+        while (buf.hasRemaining()) {
+            if (channel.read(buf) < 0) {
+                throw new EOFException("unexpected end of snapshot");
+            }
+        }
     }
 
     // методы для визуализации
@@ -129,14 +576,41 @@ public class FenwickTree {
         return n;
     }
 
+    public boolean isCompact() {
+        return arr == null;
+    }
+
     public int[] getArrSnapshot() {
         int[] copy = new int[n];
+        if (arr != null) {
+            for (int i = 0; i < n; i++) {
+                copy[i] = arr[i];
+            }
+            return copy;
+        }
+
+        // обратный проход build: отнимаем каждый узел у родителя, начиная с конца
+        int[] work = getTreeSnapshot();
+        for (int i = n; i >= 1; i--) {
+            int j = i + (i & -i);
+            if (j <= n) {
+                work[j] -= work[i];
+            }
+        }
         for (int i = 0; i < n; i++) {
-            copy[i] = arr[i];
+            copy[i] = work[i + 1];
         }
         return copy;
     }
 
+    /** Узел tree[pos], pos в 0..n (0 — служебный) — для постраничного показа без копии массива. */
+    public int getNode(int pos) {
+        if (pos < 0 || pos > n) {
+            throw new IndexOutOfBoundsException("pos = " + pos);
+        }
+        return tree[pos];
+    }
+
     public int[] getTreeSnapshot() {
         int[] copy = new int[n + 1];
         for (int i = 0; i <= n; i++) {
@@ -0,0 +1,126 @@
+package ds;
+
+import java.util.Arrays;
+
+/**
+ * Класс FenwickTree2D — двумерное дерево Фенвика для сумм на прямоугольниках.
+ * Методы:
+ *  - void build(long[][] matrix)
+ *  - void update(int r, int c, long delta)
+ *  - long prefixSum(int r, int c)
+ *  - long rectSum(int r1, int c1, int r2, int c2)
+ *
+ * Узлы лежат в одном плоском long[] размера (rows + 1) * (cols + 1), узел (i, j)
+ * хранится в tree[i * (cols + 1) + j]; операции — O(log R · log C).
+ * Для почти пустых сеток см. CompressedFenwickTree2D.
+ */
+public class FenwickTree2D {
+
+    private final int rows;
+    private final int cols;
+    private final int stride;
+    private final long[] tree;
+
+    public FenwickTree2D(int rows, int cols) {
+        if (rows <= 0 || cols <= 0) {
+            throw new IllegalArgumentException("rows and cols must be > 0");
+        }
+        if (((long) rows + 1) * ((long) cols + 1) > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("grid is too large: " + rows + " x " + cols);
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.stride = cols + 1;
+        this.tree = new long[(rows + 1) * stride];
+    }
+
+    /** Линейная сборка: прогоняем проход build сначала по строкам, затем по столбцам. */
+    public void build(long[][] matrix) {
+        if (matrix == null) {
+            throw new IllegalArgumentException("matrix is null");
+        }
+        if (matrix.length != rows) {
+            throw new IllegalArgumentException(
+                    "matrix rows (" + matrix.length + ") != rows (" + rows + ")");
+        }
+        for (int r = 0; r < rows; r++) {
+            if (matrix[r] == null || matrix[r].length != cols) {
+                throw new IllegalArgumentException("matrix row " + r + " length != cols (" + cols + ")");
+            }
+        }
+
+        Arrays.fill(tree, 0, stride, 0);
+        for (int r = 0; r < rows; r++) {
+            int base = (r + 1) * stride;
+            tree[base] = 0;
+            System.arraycopy(matrix[r], 0, tree, base + 1, cols);
+            for (int j = 1; j <= cols; j++) {
+                int p = j + (j & -j);
+                if (p <= cols) {
+                    tree[base + p] += tree[base + j];
+                }
+            }
+        }
+        for (int i = 1; i <= rows; i++) {
+            int p = i + (i & -i);
+            if (p <= rows) {
+                int from = i * stride;
+                int to = p * stride;
+                for (int j = 1; j <= cols; j++) {
+                    tree[to + j] += tree[from + j];
+                }
+            }
+        }
+    }
+
+    public void update(int r, int c, long delta) {
+        checkCell(r, c);
+        for (int i = r + 1; i <= rows; i += i & -i) {
+            int base = i * stride;
+            for (int j = c + 1; j <= cols; j += j & -j) {
+                tree[base + j] += delta;
+            }
+        }
+    }
+
+    /** Сумма на прямоугольнике [0..r] x [0..c]. */
+    public long prefixSum(int r, int c) {
+        checkCell(r, c);
+        return walk(r + 1, c + 1);
+    }
+
+    public long rectSum(int r1, int c1, int r2, int c2) {
+        if (r1 > r2 || c1 > c2) {
+            throw new IllegalArgumentException("r1 > r2 or c1 > c2");
+        }
+        checkCell(r1, c1);
+        checkCell(r2, c2);
+        return walk(r2 + 1, c2 + 1) - walk(r1, c2 + 1) - walk(r2 + 1, c1) + walk(r1, c1);
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public int cols() {
+        return cols;
+    }
+
+    /** Сумма первых r строк и c столбцов (r, c — 1-based границы, 0 даёт пустую сумму). */
+    private long walk(int r, int c) {
+        long res = 0;
+        for (int i = r; i > 0; i -= i & -i) {
+            int base = i * stride;
+            for (int j = c; j > 0; j -= j & -j) {
+                res += tree[base + j];
+            }
+        }
+        return res;
+    }
+
+    private void checkCell(int r, int c) {
+        if (r < 0 || r >= rows || c < 0 || c >= cols) {
+            throw new IndexOutOfBoundsException("r = " + r + ", c = " + c);
+        }
+    }
+}
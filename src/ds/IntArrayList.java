@@ -0,0 +1,96 @@
+package ds;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/* array list of primitive ints */
+public class IntArrayList implements MyList<Integer> {
+    private int[] data;
+    private int size;
+    public IntArrayList() {
+        this(8);
+    }
+    public IntArrayList(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("initialCapacity must be >= 0");
+        }
+        this.data = new int[initialCapacity];
+        this.size = 0;
+    }
+
+    public void add(int value) {
+        ensureCapacity(size + 1);
+        data[size] = value;
+        size++;
+    }
+
+    @Override
+    public void add(Integer value) {
+        add(value.intValue());
+    }
+
+    public void addAll(int[] values) {
+        if (values == null) {
+            throw new IllegalArgumentException("values is null");
+        }
+        ensureCapacity(size + values.length);
+        System.arraycopy(values, 0, data, size, values.length);
+        size += values.length;
+    }
+
+    public int getInt(int index) {
+        checkIndex(index);
+        return data[index];
+    }
+
+    @Override
+    public Integer get(int index) {
+        return getInt(index);
+    }
+
+    public void set(int index, int value) {
+        checkIndex(index);
+        data[index] = value;
+    }
+
+    @Override
+    public void set(int index, Integer value) {
+        set(index, value.intValue());
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void forEach(IntConsumer action) {
+        for (int i = 0; i < size; i++) {
+            action.accept(data[i]);
+        }
+    }
+
+    public int[] toArray() {
+        return Arrays.copyOf(data, size);
+    }
+
+    public void ensureCapacity(int needed) {
+        if (needed <= data.length) {
+            return;
+        }
+        int newCap = data.length * 2;
+        if (newCap < needed) {
+            newCap = needed;
+        }
+        data = Arrays.copyOf(data, newCap);
+    }
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index = " + index);
+        }
+    }
+}
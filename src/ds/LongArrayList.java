@@ -0,0 +1,96 @@
+package ds;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/* array list of primitive longs */
+public class LongArrayList implements MyList<Long> {
+    private long[] data;
+    private int size;
+    public LongArrayList() {
+        this(8);
+    }
+    public LongArrayList(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("initialCapacity must be >= 0");
+        }
+        this.data = new long[initialCapacity];
+        this.size = 0;
+    }
+
+    public void add(long value) {
+        ensureCapacity(size + 1);
+        data[size] = value;
+        size++;
+    }
+
+    @Override
+    public void add(Long value) {
+        add(value.longValue());
+    }
+
+    public void addAll(long[] values) {
+        if (values == null) {
+            throw new IllegalArgumentException("values is null");
+        }
+        ensureCapacity(size + values.length);
+        System.arraycopy(values, 0, data, size, values.length);
+        size += values.length;
+    }
+
+    public long getLong(int index) {
+        checkIndex(index);
+        return data[index];
+    }
+
+    @Override
+    public Long get(int index) {
+        return getLong(index);
+    }
+
+    public void set(int index, long value) {
+        checkIndex(index);
+        data[index] = value;
+    }
+
+    @Override
+    public void set(int index, Long value) {
+        set(index, value.longValue());
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void forEach(LongConsumer action) {
+        for (int i = 0; i < size; i++) {
+            action.accept(data[i]);
+        }
+    }
+
+    public long[] toArray() {
+        return Arrays.copyOf(data, size);
+    }
+
+    public void ensureCapacity(int needed) {
+        if (needed <= data.length) {
+            return;
+        }
+        int newCap = data.length * 2;
+        if (newCap < needed) {
+            newCap = needed;
+        }
+        data = Arrays.copyOf(data, newCap);
+    }
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index = " + index);
+        }
+    }
+}
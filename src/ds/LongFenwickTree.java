@@ -0,0 +1,258 @@
+package ds;
+/**
+ * Класс LongFenwickTree — дерево Фенвика над long[] (без переполнения на 2^31).
+ * Методы:
+ *  - void build(long[] arr)
+ *  - void update(int index, long delta)
+ *  - long prefixSum(int index)
+ *  - long rangeSum(int left, int right)
+ *  - int lowerBound(long target)
+ *  - long total()
+ *
+ * В режиме overflowChecked все сложения идут через Math.addExact,
+ * и переполнение выбрасывает ArithmeticException вместо тихого заворота.
+ */
+public class LongFenwickTree {
+
+    private final int n;
+    private long[] tree;
+    private long[] arr;
+    private final boolean overflowChecked;
+    private long total;                  // сумма всех элементов
+
+    public LongFenwickTree(int n) {
+        this(n, false);
+    }
+
+    public LongFenwickTree(int n, boolean overflowChecked) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("n must be > 0");
+        }
+        this.n = n;
+        this.tree = new long[n + 1]; // индексы [1..n]
+        this.arr = new long[n];      // arr[0..n-1]
+        this.overflowChecked = overflowChecked;
+    }
+
+    public void build(long[] input) {
+        if (input == null) {
+            throw new IllegalArgumentException("input is null");
+        }
+        if (input.length != n) {
+            throw new IllegalArgumentException(
+                    "input length (" + input.length + ") != n (" + n + ")");
+        }
+
+        // строим во временном массиве, чтобы при переполнении дерево не осталось наполовину собранным
+        long[] next = new long[n + 1];
+        System.arraycopy(input, 0, next, 1, n);
+
+        for (int i = 1; i <= n; i++) {
+            int j = i + (i & -i);
+            if (j <= n) {
+                next[j] = overflowChecked ? Math.addExact(next[j], next[i]) : next[j] + next[i];
+            }
+        }
+
+        long sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum = overflowChecked ? Math.addExact(sum, input[i]) : sum + input[i];
+        }
+
+        System.arraycopy(input, 0, arr, 0, n);
+        tree = next;
+        total = sum;
+    }
+
+    public void update(int index, long delta) {
+        if (index < 0 || index >= n) {
+            throw new IndexOutOfBoundsException("index = " + index);
+        }
+        if (overflowChecked) {
+            // все новые значения считаются до первой записи: при ArithmeticException
+            // arr, tree и total остаются согласованными (build {0, MAX}, update(0, 1) ничего не меняет)
+            long nextTotal = Math.addExact(total, delta);
+            long nextValue = Math.addExact(arr[index], delta);
+            internalAddExact(index + 1, delta);
+            arr[index] = nextValue;
+            total = nextTotal;
+        } else {
+            arr[index] += delta;
+            internalAdd(index + 1, delta);
+            total += delta;
+        }
+    }
+
+    /**
+     * Пакетное обновление: deltas[k] прибавляется к элементу indices[k], повторы индексов допустимы.
+     * Небольшой пакет применяется обычными проходами по O(log n), большой (от ~n / log n
+     * обновлений) — суммированием дельт в одном массиве и линейным проходом как в build, за O(n + k).
+     * Индексы проверяются до изменений, переполнение в режиме overflowChecked откатывает
+     * уже применённые обновления: при любой ошибке дерево не меняется.
+     */
+    public void updateBatch(int[] indices, long[] deltas) {
+        if (indices == null || deltas == null) {
+            throw new IllegalArgumentException("indices or deltas is null");
+        }
+        if (indices.length != deltas.length) {
+            throw new IllegalArgumentException(
+                    "indices length (" + indices.length + ") != deltas length (" + deltas.length + ")");
+        }
+        int k = indices.length;
+        for (int i = 0; i < k; i++) {
+            if (indices[i] < 0 || indices[i] >= n) {
+                throw new IndexOutOfBoundsException("indices[" + i + "] = " + indices[i]);
+            }
+        }
+        if (overflowChecked) {
+            // проверяемый режим: по одному, чтобы переполнение ловилось на каждом узле;
+            // при ArithmeticException уже применённый префикс откатывается в обратном порядке
+            int applied = 0;
+            try {
+                for (; applied < k; applied++) {
+                    update(indices[applied], deltas[applied]);
+                }
+            } catch (ArithmeticException e) {
+                for (int i = applied - 1; i >= 0; i--) {
+                    arr[indices[i]] -= deltas[i];
+                    internalAdd(indices[i] + 1, -deltas[i]);
+                    total -= deltas[i];
+                }
+                throw e;
+            }
+            return;
+        }
+
+        if (k < denseBatchThreshold()) {
+            for (int i = 0; i < k; i++) {
+                arr[indices[i]] += deltas[i];
+                internalAdd(indices[i] + 1, deltas[i]);
+                total += deltas[i];
+            }
+            return;
+        }
+
+        long[] acc = new long[n + 1];
+        for (int i = 0; i < k; i++) {
+            arr[indices[i]] += deltas[i];
+            acc[indices[i] + 1] += deltas[i];
+            total += deltas[i];
+        }
+        for (int i = 1; i <= n; i++) {
+            int j = i + (i & -i);
+            if (j <= n) {
+                acc[j] += acc[i];
+            }
+            tree[i] += acc[i];
+        }
+    }
+
+    /** Размер пакета, начиная с которого линейный проход дешевле k проходов по O(log n). */
+    private int denseBatchThreshold() {
+        int logN = 32 - Integer.numberOfLeadingZeros(n);
+        return n / logN;
+    }
+
+    public long prefixSum(int index) {
+        if (index < 0 || index >= n) {
+            throw new IndexOutOfBoundsException(
+                    "index = " + index + ", допустимый диапазон: 0.." + (n - 1)
+            );
+        }
+
+        int i = index + 1;
+        long res = 0;
+        if (overflowChecked) {
+            while (i > 0) {
+                res = Math.addExact(res, tree[i]);
+                i -= i & -i;
+            }
+        } else {
+            while (i > 0) {
+                res += tree[i];
+                i -= i & -i;
+            }
+        }
+        return res;
+    }
+
+    public long rangeSum(int left, int right) {
+        if (left > right) {
+            throw new IllegalArgumentException("left > right");
+        }
+        if (left < 0 || right >= n) {
+            throw new IndexOutOfBoundsException("left = " + left + ", right = " + right);
+        }
+        if (left == 0) {
+            return prefixSum(right);
+        }
+        long hi = prefixSum(right);
+        long lo = prefixSum(left - 1);
+        return overflowChecked ? Math.subtractExact(hi, lo) : hi - lo;
+    }
+
+    private void internalAdd(int pos, long delta) {
+        while (pos <= n) {
+            tree[pos] += delta;
+            pos += pos & -pos;
+        }
+    }
+
+    /**
+     * Проверяем все узлы пути до записи, чтобы при переполнении
+     * дерево осталось согласованным.
+     */
+    private void internalAddExact(int pos, long delta) {
+        for (int p = pos; p <= n; p += p & -p) {
+            Math.addExact(tree[p], delta);
+        }
+        internalAdd(pos, delta);
+    }
+
+    public int lowerBound(long target) {
+        if (target <= 0) { return 0; }
+
+        if (target > prefixSum(n - 1)) { return -1; }
+
+        int idx = 0;
+        int bit = Integer.highestOneBit(n);
+        long sum = 0;
+
+        while (bit != 0) {
+            int next = idx + bit;
+            if (next <= n && sum + tree[next] < target) {
+                sum += tree[next];
+                idx = next;
+            }
+            bit >>= 1;
+        }
+
+        // idx — последняя 1-based позиция с суммой < target, ответ — следующая (0-based idx)
+        return idx;
+    }
+
+    /** Сумма всех элементов, O(1). */
+    public long total() {
+        return total;
+    }
+
+    public int size() {
+        return n;
+    }
+
+    public boolean isOverflowChecked() {
+        return overflowChecked;
+    }
+
+    public long[] getArrSnapshot() {
+        long[] copy = new long[n];
+        System.arraycopy(arr, 0, copy, 0, n);
+        return copy;
+    }
+
+    public long[] getTreeSnapshot() {
+        long[] copy = new long[n + 1];
+        System.arraycopy(tree, 0, copy, 0, n + 1);
+        return copy;
+    }
+}
@@ -0,0 +1,238 @@
+package ds;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * Класс MappedFenwickTree — дерево Фенвика над long, узлы которого лежат
+ * в отображённом в память файле (вне Java heap).
+ * Методы:
+ *  - static MappedFenwickTree create(Path file, long n)
+ *  - static MappedFenwickTree open(Path file)
+ *  - void build(long[] arr) / void build(LongUnaryOperator valueAt)
+ *  - void update(long index, long delta)
+ *  - long prefixSum(long index)
+ *  - long rangeSum(long left, long right)
+ *  - long lowerBound(long target)
+ *  - void force()
+ *
+ * Формат файла: заголовок HEADER_BYTES байт (magic, version, тип элемента, n),
+ * затем узлы tree[1..n] подряд в little-endian. После open() дерево сразу
+ * готово к запросам, повторный build() не нужен.
+ * Один MappedByteBuffer ограничен 2 ГБ, поэтому файл отображается кусками по CHUNK_BYTES.
+ */
+public class MappedFenwickTree implements Closeable {
+
+    private static final int MAGIC = 0x464E574B; // "FNWK"
+    private static final int VERSION = 1;
+    private static final int TYPE_LONG = 8;      // код типа элемента = ширина в байтах
+    private static final int HEADER_BYTES = 64;
+
+    private static final int CHUNK_SHIFT = 27;   // 2^27 узлов = 1 ГБ на кусок
+    private static final long CHUNK_MASK = (1L << CHUNK_SHIFT) - 1;
+    private static final long CHUNK_BYTES = (1L << CHUNK_SHIFT) * Long.BYTES;
+    private static final long MAX_N = (long) Integer.MAX_VALUE << CHUNK_SHIFT; // кусков не больше int
+
+    private final long n;
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+    private final MappedByteBuffer[] chunks;
+
+    private MappedFenwickTree(FileChannel channel, long n) throws IOException {
+        this.n = n;
+        this.channel = channel;
+        this.header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+        this.header.order(ByteOrder.LITTLE_ENDIAN);
+
+        if (n <= 0 || n > MAX_N) {
+            throw new IllegalArgumentException("n is out of range: " + n);
+        }
+        int chunkCount = (int) ((n + CHUNK_MASK) >>> CHUNK_SHIFT);
+        this.chunks = new MappedByteBuffer[chunkCount];
+        for (int c = 0; c < chunkCount; c++) {
+            long offset = HEADER_BYTES + c * CHUNK_BYTES;
+            long bytes = Math.min(CHUNK_BYTES, (n << 3) - c * CHUNK_BYTES);
+            chunks[c] = channel.map(FileChannel.MapMode.READ_WRITE, offset, bytes);
+            chunks[c].order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    /** Создаёт (или перезаписывает) файл с пустым деревом из n нулей. */
+    public static MappedFenwickTree create(Path file, long n) throws IOException {
+        if (n <= 0) {
+            throw new IllegalArgumentException("n must be > 0");
+        }
+        if (n > MAX_N) {
+            throw new IllegalArgumentException("n is too large: " + n);
+        }
+        FileChannel ch = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            MappedFenwickTree t = new MappedFenwickTree(ch, n);
+            t.header.putInt(0, MAGIC);
+            t.header.putInt(4, VERSION);
+            t.header.putInt(8, TYPE_LONG);
+            t.header.putLong(16, n);
+            return t;
+        } catch (IOException | RuntimeException e) {
+            ch.close();
+            throw e;
+        }
+    }
+
+    /** Открывает ранее созданный файл; проверяет magic, версию, тип элемента и размер. */
+    public static MappedFenwickTree open(Path file) throws IOException {
+        FileChannel ch = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (ch.size() < HEADER_BYTES) {
+                throw new IOException("file is too short for header: " + file);
+            }
+            MappedByteBuffer h = ch.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+            h.order(ByteOrder.LITTLE_ENDIAN);
+            if (h.getInt(0) != MAGIC) {
+                throw new IOException("bad magic in " + file);
+            }
+            if (h.getInt(4) != VERSION) {
+                throw new IOException("unsupported version " + h.getInt(4) + " in " + file);
+            }
+            if (h.getInt(8) != TYPE_LONG) {
+                throw new IOException("unsupported element type " + h.getInt(8) + " in " + file);
+            }
+            long n = h.getLong(16);
+            // сравнение делением: n из повреждённого заголовка может переполнить n * Long.BYTES
+            if (n <= 0 || n > MAX_N || n > (ch.size() - HEADER_BYTES) / Long.BYTES) {
+                throw new IOException("corrupted header: n = " + n + ", file size = " + ch.size());
+            }
+            return new MappedFenwickTree(ch, n);
+        } catch (IOException | RuntimeException e) {
+            ch.close();
+            throw e;
+        }
+    }
+
+    public void build(long[] input) {
+        if (input == null) {
+            throw new IllegalArgumentException("input is null");
+        }
+        if (input.length != n) {
+            throw new IllegalArgumentException(
+                    "input length (" + input.length + ") != n (" + n + ")");
+        }
+        build(i -> input[(int) i]);
+    }
+
+    /** Линейная сборка прямо в файле: valueAt(i) — значение arr[i] для i в 0..n-1. */
+    public void build(LongUnaryOperator valueAt) {
+        if (valueAt == null) {
+            throw new IllegalArgumentException("valueAt is null");
+        }
+        for (long i = 1; i <= n; i++) {
+            put(i, valueAt.applyAsLong(i - 1));
+        }
+        for (long i = 1; i <= n; i++) {
+            long j = i + (i & -i);
+            if (j <= n) {
+                put(j, node(j) + node(i));
+            }
+        }
+    }
+
+    public void update(long index, long delta) {
+        if (index < 0 || index >= n) {
+            throw new IndexOutOfBoundsException("index = " + index);
+        }
+        long pos = index + 1;
+        while (pos <= n) {
+            put(pos, node(pos) + delta);
+            pos += pos & -pos;
+        }
+    }
+
+    public long prefixSum(long index) {
+        if (index < 0 || index >= n) {
+            throw new IndexOutOfBoundsException(
+                    "index = " + index + ", допустимый диапазон: 0.." + (n - 1)
+            );
+        }
+
+        long i = index + 1;
+        long res = 0;
+        while (i > 0) {
+            res += node(i);
+            i -= i & -i;
+        }
+        return res;
+    }
+
+    public long rangeSum(long left, long right) {
+        if (left > right) {
+            throw new IllegalArgumentException("left > right");
+        }
+        if (left < 0 || right >= n) {
+            throw new IndexOutOfBoundsException("left = " + left + ", right = " + right);
+        }
+        if (left == 0) {
+            return prefixSum(right);
+        }
+        return prefixSum(right) - prefixSum(left - 1);
+    }
+
+    public long lowerBound(long target) {
+        if (target <= 0) { return 0; }
+
+        long total = prefixSum(n - 1);
+        if (target > total) { return -1; }
+
+        long idx = 0;
+        long bit = Long.highestOneBit(n);
+        long sum = 0;
+
+        while (bit != 0) {
+            long next = idx + bit;
+            if (next <= n && sum + node(next) < target) {
+                sum += node(next);
+                idx = next;
+            }
+            bit >>= 1;
+        }
+        return idx;
+    }
+
+    public long size() {
+        return n;
+    }
+
+    /** Сбрасывает изменённые страницы заголовка и узлов на диск. */
+    public void force() {
+        header.force();
+        for (MappedByteBuffer chunk : chunks) {
+            chunk.force();
+        }
+    }
+
+    /**
+     * Закрывает канал. Без force() изменения всё равно попадут в файл,
+     * но момент записи на диск определяет ОС.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private long node(long pos) {
+        long k = pos - 1;
+        return chunks[(int) (k >>> CHUNK_SHIFT)].getLong((int) (k & CHUNK_MASK) << 3);
+    }
+
+    private void put(long pos, long value) {
+        long k = pos - 1;
+        chunks[(int) (k >>> CHUNK_SHIFT)].putLong((int) (k & CHUNK_MASK) << 3, value);
+    }
+}
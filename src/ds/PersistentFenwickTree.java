@@ -0,0 +1,256 @@
+package ds;
+/**
+ * Класс PersistentFenwickTree — дерево Фенвика с дешёвыми неизменяемыми версиями.
+ * Методы:
+ *  - void build(int[] arr)
+ *  - void update(int index, int delta)
+ *  - int prefixSum(int index) / int rangeSum(int left, int right)
+ *  - Version snapshot()
+ *  - int prefixSum(Version version, int index)
+ *
+ * Узлы tree[0..n] лежат не в одном массиве, а в листьях по CHUNK значений,
+ * собранных в префиксное дерево (как в персистентных векторах) с ветвлением CHUNK.
+ * snapshot() за O(1) фиксирует текущий корень и меняет «эпоху» записи: дальше update
+ * копирует только те листья и ветви на пути к ним, которые принадлежат прошлой эпохе,
+ * то есть O(log n) затронутых кусков, а не весь массив. Внутри одной эпохи куски,
+ * уже скопированные писателем, меняются на месте.
+ *
+ * Писатель — один поток. Version неизменяема, и её можно читать из других потоков
+ * параллельно с update (после безопасной публикации самой ссылки на Version).
+ */
+public class PersistentFenwickTree {
+
+    private static final int BITS = 5;
+    private static final int CHUNK = 1 << BITS;
+    private static final int MASK = CHUNK - 1;
+
+    private final int n;
+    private final int rootShift; // сдвиг индекса для уровня корня
+    private Node root;
+    private long edit;           // эпоха записи: узлы с owner == edit принадлежат писателю
+    private long nextVersionId;
+
+    public PersistentFenwickTree(int n) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("n must be > 0");
+        }
+        this.n = n;
+        int shift = 0;
+        while (((long) CHUNK << shift) < (long) n + 1) {
+            shift += BITS;
+        }
+        this.rootShift = shift;
+        this.root = buildNode(new int[n + 1], 0, shift);
+    }
+
+    /** Неизменяемая версия дерева. */
+    public static final class Version {
+        private final Node root;
+        private final int n;
+        private final int rootShift;
+        private final long id;
+
+        private Version(Node root, int n, int rootShift, long id) {
+            this.root = root;
+            this.n = n;
+            this.rootShift = rootShift;
+            this.id = id;
+        }
+
+        public long id() {
+            return id;
+        }
+
+        public int size() {
+            return n;
+        }
+
+        public int prefixSum(int index) {
+            checkIndex(index, n);
+            return walk(root, rootShift, index + 1);
+        }
+
+        public int rangeSum(int left, int right) {
+            checkRange(left, right, n);
+            if (left == 0) {
+                return prefixSum(right);
+            }
+            return walk(root, rootShift, right + 1) - walk(root, rootShift, left);
+        }
+
+        /** Узлы tree[0..n] этой версии (копия, O(n)). */
+        public int[] getTreeSnapshot() {
+            int[] copy = new int[n + 1];
+            for (int i = 0; i <= n; i++) {
+                copy[i] = read(root, rootShift, i);
+            }
+            return copy;
+        }
+    }
+
+    public void build(int[] input) {
+        if (input == null) {
+            throw new IllegalArgumentException("input is null");
+        }
+        if (input.length != n) {
+            throw new IllegalArgumentException(
+                    "input length (" + input.length + ") != n (" + n + ")");
+        }
+
+        int[] flat = new int[n + 1];
+        for (int i = 0; i < n; i++) {
+            flat[i + 1] = input[i];
+        }
+        for (int i = 1; i <= n; i++) {
+            int j = i + (i & -i);
+            if (j <= n) {
+                flat[j] += flat[i];
+            }
+        }
+        root = buildNode(flat, 0, rootShift);
+    }
+
+    public void update(int index, int delta) {
+        if (index < 0 || index >= n) {
+            throw new IndexOutOfBoundsException("index = " + index);
+        }
+        int pos = index + 1;
+        while (pos <= n) {
+            int[] leaf = editableLeaf(pos);
+            leaf[pos & MASK] += delta;
+            pos += pos & -pos;
+        }
+    }
+
+    public int prefixSum(int index) {
+        checkIndex(index, n);
+        return walk(root, rootShift, index + 1);
+    }
+
+    public int rangeSum(int left, int right) {
+        checkRange(left, right, n);
+        if (left == 0) {
+            return prefixSum(right);
+        }
+        return walk(root, rootShift, right + 1) - walk(root, rootShift, left);
+    }
+
+    /** Фиксирует текущее состояние за O(1). */
+    public Version snapshot() {
+        Version v = new Version(root, n, rootShift, nextVersionId++);
+        edit++;
+        return v;
+    }
+
+    public int prefixSum(Version version, int index) {
+        if (version == null) {
+            throw new IllegalArgumentException("version is null");
+        }
+        return version.prefixSum(index);
+    }
+
+    public int rangeSum(Version version, int left, int right) {
+        if (version == null) {
+            throw new IllegalArgumentException("version is null");
+        }
+        return version.rangeSum(left, right);
+    }
+
+    public int size() {
+        return n;
+    }
+
+    /** Лист с позицией pos, принадлежащий текущей эпохе; по пути копирует чужие узлы. */
+    private int[] editableLeaf(int pos) {
+        if (root.owner != edit) {
+            root = root.copy(edit);
+        }
+        Node node = root;
+        for (int shift = rootShift; shift > 0; shift -= BITS) {
+            int slot = (pos >>> shift) & MASK;
+            Node child = node.children[slot];
+            if (child.owner != edit) {
+                child = child.copy(edit);
+                node.children[slot] = child;
+            }
+            node = child;
+        }
+        return node.values;
+    }
+
+    private Node buildNode(int[] flat, int from, int shift) {
+        if (shift == 0) {
+            int[] values = new int[CHUNK];
+            int len = Math.min(CHUNK, flat.length - from);
+            if (len > 0) {
+                System.arraycopy(flat, from, values, 0, len);
+            }
+            return new Node(edit, null, values);
+        }
+        Node[] children = new Node[CHUNK];
+        // в long: при n > 2^30 корень имеет shift = 30, и k * span не помещается в int
+        long span = 1L << shift;
+        for (int k = 0; k < CHUNK; k++) {
+            long start = from + k * span;
+            // пустые хвостовые ветви не создаём, кроме первой — путь до любой позиции <= n существует;
+            // поэтому start дальше не превосходит n и приводится к int без потерь
+            if (start > n && k > 0) {
+                break;
+            }
+            children[k] = buildNode(flat, (int) start, shift - BITS);
+        }
+        return new Node(edit, children, null);
+    }
+
+    private static int read(Node node, int rootShift, int pos) {
+        for (int shift = rootShift; shift > 0; shift -= BITS) {
+            node = node.children[(pos >>> shift) & MASK];
+        }
+        return node.values[pos & MASK];
+    }
+
+    private static int walk(Node root, int rootShift, int i) {
+        int res = 0;
+        while (i > 0) {
+            res += read(root, rootShift, i);
+            i -= i & -i;
+        }
+        return res;
+    }
+
+    private static void checkIndex(int index, int n) {
+        if (index < 0 || index >= n) {
+            throw new IndexOutOfBoundsException(
+                    "index = " + index + ", допустимый диапазон: 0.." + (n - 1)
+            );
+        }
+    }
+
+    private static void checkRange(int left, int right, int n) {
+        if (left > right) {
+            throw new IllegalArgumentException("left > right");
+        }
+        if (left < 0 || right >= n) {
+            throw new IndexOutOfBoundsException("left = " + left + ", right = " + right);
+        }
+    }
+
+    /** Лист (values != null) или ветвь (children != null) префиксного дерева. */
+    private static final class Node {
+        final long owner;
+        final Node[] children;
+        final int[] values;
+
+        Node(long owner, Node[] children, int[] values) {
+            this.owner = owner;
+            this.children = children;
+            this.values = values;
+        }
+
+        Node copy(long newOwner) {
+            return new Node(newOwner,
+                    children != null ? children.clone() : null,
+                    values != null ? values.clone() : null);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package ds;
+/**
+ * Класс RangeFenwickTree — прибавление на отрезке и сумма на отрезке за O(log n).
+ * Методы:
+ *  - void build(long[] arr)
+ *  - void rangeAdd(int left, int right, long delta)
+ *  - long pointQuery(int index)
+ *  - long prefixSum(int index)
+ *  - long rangeSum(int left, int right)
+ *
+ * Два дерева Фенвика над разностным массивом d (d[i] = arr[i] - arr[i-1]):
+ * b1 хранит d[i], b2 — d[i] * i. Тогда
+ *   arr[i]             = sum(b1, 0..i),
+ *   arr[0] + .. arr[i] = sum(b1, 0..i) * (i + 1) - sum(b2, 0..i).
+ */
+public class RangeFenwickTree {
+
+    private final int n;
+    private final long[] b1; // индексы [1..n]
+    private final long[] b2; // индексы [1..n]
+
+    public RangeFenwickTree(int n) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("n must be > 0");
+        }
+        this.n = n;
+        this.b1 = new long[n + 1];
+        this.b2 = new long[n + 1];
+    }
+
+    public void build(long[] input) {
+        if (input == null) {
+            throw new IllegalArgumentException("input is null");
+        }
+        if (input.length != n) {
+            throw new IllegalArgumentException(
+                    "input length (" + input.length + ") != n (" + n + ")");
+        }
+
+        b1[0] = 0;
+        b2[0] = 0;
+        long prev = 0;
+        for (int i = 0; i < n; i++) {
+            long d = input[i] - prev;
+            prev = input[i];
+            b1[i + 1] = d;
+            b2[i + 1] = d * i;
+        }
+        for (int i = 1; i <= n; i++) {
+            int j = i + (i & -i);
+            if (j <= n) {
+                b1[j] += b1[i];
+                b2[j] += b2[i];
+            }
+        }
+    }
+
+    public void rangeAdd(int left, int right, long delta) {
+        if (left > right) {
+            throw new IllegalArgumentException("left > right");
+        }
+        if (left < 0 || right >= n) {
+            throw new IndexOutOfBoundsException("left = " + left + ", right = " + right);
+        }
+        internalAdd(left + 1, delta, delta * left);
+        if (right + 1 < n) {
+            internalAdd(right + 2, -delta, -delta * (right + 1));
+        }
+    }
+
+    public long pointQuery(int index) {
+        checkIndex(index);
+        long res = 0;
+        for (int i = index + 1; i > 0; i -= i & -i) {
+            res += b1[i];
+        }
+        return res;
+    }
+
+    public long prefixSum(int index) {
+        checkIndex(index);
+        long s1 = 0;
+        long s2 = 0;
+        for (int i = index + 1; i > 0; i -= i & -i) {
+            s1 += b1[i];
+            s2 += b2[i];
+        }
+        return s1 * (index + 1) - s2;
+    }
+
+    public long rangeSum(int left, int right) {
+        if (left > right) {
+            throw new IllegalArgumentException("left > right");
+        }
+        if (left < 0 || right >= n) {
+            throw new IndexOutOfBoundsException("left = " + left + ", right = " + right);
+        }
+        if (left == 0) {
+            return prefixSum(right);
+        }
+        return prefixSum(right) - prefixSum(left - 1);
+    }
+
+    public int size() {
+        return n;
+    }
+
+    public long[] getArrSnapshot() {
+        long[] copy = new long[n];
+        for (int i = 0; i < n; i++) {
+            copy[i] = pointQuery(i);
+        }
+        return copy;
+    }
+
+    private void internalAdd(int pos, long d1, long d2) {
+        while (pos <= n) {
+            b1[pos] += d1;
+            b2[pos] += d2;
+            pos += pos & -pos;
+        }
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= n) {
+            throw new IndexOutOfBoundsException(
+                    "index = " + index + ", допустимый диапазон: 0.." + (n - 1)
+            );
+        }
+    }
+}
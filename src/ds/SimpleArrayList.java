@@ -1,4 +1,7 @@
 package ds;
+
+import java.util.Arrays;
+
 /* array list implementation */
 public class SimpleArrayList<T> implements MyList<T> {
     private Object[] data;
@@ -46,11 +49,7 @@ public class SimpleArrayList<T> implements MyList<T> {
         if (newCap < needed) {
             newCap = needed;
         }
-        Object[] newData = new Object[newCap];
-        for (int i = 0; i < size; i++) {
-            newData[i] = data[i];
-        }
-        data = newData;
+        data = Arrays.copyOf(data, newCap);
     }
     private void checkIndex(int index) {
         if (index < 0 || index >= size) {
@@ -0,0 +1,102 @@
+package ds;
+/**
+ * Класс SlidingWindowFenwickTree — скользящее окно из последних capacity бакетов.
+ * Методы:
+ *  - void append(int value)
+ *  - void dropOldest(int count)
+ *  - int prefixSum(int index)
+ *  - int rangeSum(int left, int right)
+ *  - int get(int index)
+ *
+ * Кольцевой буфер поверх компактного FenwickTree: индекс 0 — самый старый бакет окна.
+ * Когда окно заполнено, append вытесняет самый старый бакет, перезаписывая его ячейку
+ * одним update за O(log capacity); память фиксирована и не растёт со временем.
+ */
+public class SlidingWindowFenwickTree {
+
+    private final int capacity;
+    private final FenwickTree tree;
+    private int head; // физическая ячейка самого старого бакета
+    private int size;
+
+    public SlidingWindowFenwickTree(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be > 0");
+        }
+        this.capacity = capacity;
+        this.tree = new FenwickTree(capacity, true);
+    }
+
+    public void append(int value) {
+        int slot;
+        if (size == capacity) {
+            slot = head;
+            head = next(head, 1);
+        } else {
+            slot = next(head, size);
+            size++;
+        }
+        tree.update(slot, value - tree.get(slot));
+    }
+
+    /** Отбрасывает count самых старых бакетов. */
+    public void dropOldest(int count) {
+        if (count < 0 || count > size) {
+            throw new IllegalArgumentException("count = " + count + ", size = " + size);
+        }
+        for (int k = 0; k < count; k++) {
+            tree.update(head, -tree.get(head));
+            head = next(head, 1);
+        }
+        size -= count;
+    }
+
+    public int get(int index) {
+        checkIndex(index);
+        return tree.get(next(head, index));
+    }
+
+    public int prefixSum(int index) {
+        checkIndex(index);
+        return physicalRange(head, next(head, index));
+    }
+
+    public int rangeSum(int left, int right) {
+        if (left > right) {
+            throw new IllegalArgumentException("left > right");
+        }
+        if (left < 0 || right >= size) {
+            throw new IndexOutOfBoundsException("left = " + left + ", right = " + right);
+        }
+        return physicalRange(next(head, left), next(head, right));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /** Сумма физических ячеек от from до to включительно с учётом заворота. */
+    private int physicalRange(int from, int to) {
+        if (from <= to) {
+            return tree.rangeSum(from, to);
+        }
+        return tree.rangeSum(from, capacity - 1) + tree.prefixSum(to);
+    }
+
+    private int next(int slot, int offset) {
+        int res = slot + offset;
+        return res >= capacity ? res - capacity : res;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(
+                    "index = " + index + ", допустимый диапазон: 0.." + (size - 1)
+            );
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package ds;
+/**
+ * Класс SparseFenwickTree — дерево Фенвика над огромным диапазоном индексов [0, n), n — long.
+ * Методы:
+ *  - void update(long index, long delta)
+ *  - long prefixSum(long index)
+ *  - long rangeSum(long left, long right)
+ *  - long lowerBound(long target)
+ *
+ * Узлы хранятся не в массиве n + 1, а в примитивной хеш-таблице long -> long
+ * с открытой адресацией, поэтому память растёт с числом затронутых узлов
+ * (O(log n) на каждый различный индекс), а не с размером домена. Без боксинга.
+ */
+public class SparseFenwickTree {
+
+    private final long n;
+    private final NodeMap nodes = new NodeMap();
+    private long total;
+
+    public SparseFenwickTree(long n) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("n must be > 0");
+        }
+        this.n = n;
+    }
+
+    public void update(long index, long delta) {
+        if (index < 0 || index >= n) {
+            throw new IndexOutOfBoundsException("index = " + index);
+        }
+        if (delta == 0) {
+            return;
+        }
+        long pos = index + 1;
+        while (pos <= n) {
+            nodes.add(pos, delta);
+            pos += pos & -pos;
+            if (pos <= 0) {
+                break; // переполнение long при n, близком к Long.MAX_VALUE
+            }
+        }
+        total += delta;
+    }
+
+    public long prefixSum(long index) {
+        if (index < 0 || index >= n) {
+            throw new IndexOutOfBoundsException(
+                    "index = " + index + ", допустимый диапазон: 0.." + (n - 1)
+            );
+        }
+
+        long i = index + 1;
+        long res = 0;
+        while (i > 0) {
+            res += nodes.get(i);
+            i -= i & -i;
+        }
+        return res;
+    }
+
+    public long rangeSum(long left, long right) {
+        if (left > right) {
+            throw new IllegalArgumentException("left > right");
+        }
+        if (left < 0 || right >= n) {
+            throw new IndexOutOfBoundsException("left = " + left + ", right = " + right);
+        }
+        if (left == 0) {
+            return prefixSum(right);
+        }
+        return prefixSum(right) - prefixSum(left - 1);
+    }
+
+    public long lowerBound(long target) {
+        if (target <= 0) { return 0; }
+        if (target > total) { return -1; }
+
+        long idx = 0;
+        long bit = Long.highestOneBit(n);
+        long sum = 0;
+
+        while (bit != 0) {
+            long next = idx + bit;
+            if (next <= n) {
+                long node = nodes.get(next);
+                if (sum + node < target) {
+                    sum += node;
+                    idx = next;
+                }
+            }
+            bit >>>= 1;
+        }
+        return idx;
+    }
+
+    public long size() {
+        return n;
+    }
+
+    /** Сумма всех элементов, O(1). */
+    public long total() {
+        return total;
+    }
+
+    /** Число узлов, реально хранящихся в таблице. */
+    public int nodeCount() {
+        return nodes.size;
+    }
+
+    /**
+     * Хеш-таблица long -> long с открытой адресацией и линейным пробированием.
+     * Ключ 0 — признак пустой ячейки (узла 0 в дереве Фенвика нет).
+     */
+    private static final class NodeMap {
+        private long[] keys = new long[16];
+        private long[] values = new long[16];
+        private int size;
+
+        long get(long key) {
+            int mask = keys.length - 1;
+            int i = hash(key) & mask;
+            while (true) {
+                long k = keys[i];
+                if (k == key) {
+                    return values[i];
+                }
+                if (k == 0) {
+                    return 0;
+                }
+                i = (i + 1) & mask;
+            }
+        }
+
+        void add(long key, long delta) {
+            int mask = keys.length - 1;
+            int i = hash(key) & mask;
+            while (true) {
+                long k = keys[i];
+                if (k == key) {
+                    values[i] += delta;
+                    return;
+                }
+                if (k == 0) {
+                    keys[i] = key;
+                    values[i] = delta;
+                    size++;
+                    if (size * 2 > keys.length) {
+                        grow();
+                    }
+                    return;
+                }
+                i = (i + 1) & mask;
+            }
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            long[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new long[oldValues.length * 2];
+            int mask = keys.length - 1;
+            for (int j = 0; j < oldKeys.length; j++) {
+                long k = oldKeys[j];
+                if (k != 0) {
+                    int i = hash(k) & mask;
+                    while (keys[i] != 0) {
+                        i = (i + 1) & mask;
+                    }
+                    keys[i] = k;
+                    values[i] = oldValues[j];
+                }
+            }
+        }
+
+        private static int hash(long key) {
+            // финализатор MurmurHash3: соседние узлы не должны попадать в соседние ячейки
+            long h = key;
+            h ^= h >>> 33;
+            h *= 0xff51afd7ed558ccdL;
+            h ^= h >>> 33;
+            h *= 0xc4ceb9fe1a85ec53L;
+            h ^= h >>> 33;
+            return (int) h;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package ds;
+
+/**
+ * Класс StripedFenwickTree — дерево Фенвика, разбитое на шарды по образцу LongAdder.
+ * Методы:
+ *  - void update(int index, long delta)
+ *  - long prefixSum(int index)
+ *  - long rangeSum(int left, int right)
+ *  - int lowerBound(long target)
+ *
+ * Каждый шард — отдельное ConcurrentFenwickTree с той же раскладкой tree[1..n].
+ * Поток пишет только в свой шард (выбирается по хешу id потока), поэтому горячие
+ * узлы у корня не перебрасываются между ядрами. Если два потока попали в один шард,
+ * корректность сохраняется за счёт атомарных добавлений внутри шарда. Запросы суммируют узлы всех шардов:
+ * дерево линейно, так что сумма деревьев — дерево суммы.
+ * Подходит для нагрузки, где update намного чаще запросов; память — shards * (n + 1) long.
+ */
+public class StripedFenwickTree {
+
+    private final int n;
+    private final ConcurrentFenwickTree[] shards;
+    private final int mask;
+
+    public StripedFenwickTree(int n) {
+        this(n, Runtime.getRuntime().availableProcessors());
+    }
+
+    public StripedFenwickTree(int n, int stripes) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("n must be > 0");
+        }
+        if (stripes <= 0) {
+            throw new IllegalArgumentException("stripes must be > 0");
+        }
+        int count = Integer.highestOneBit(stripes);
+        if (count < stripes) {
+            count <<= 1; // округляем вверх до степени двойки
+        }
+        this.n = n;
+        this.shards = new ConcurrentFenwickTree[count];
+        for (int i = 0; i < count; i++) {
+            shards[i] = new ConcurrentFenwickTree(n);
+        }
+        this.mask = count - 1;
+    }
+
+    /** Кладёт все значения в первый шард; остальные обнуляются. Не потокобезопасен. */
+    public void build(long[] input) {
+        shards[0].build(input);
+        long[] zeros = new long[n];
+        for (int i = 1; i < shards.length; i++) {
+            shards[i].build(zeros);
+        }
+    }
+
+    public void update(int index, long delta) {
+        shards[shardIndex()].update(index, delta);
+    }
+
+    public long prefixSum(int index) {
+        if (index < 0 || index >= n) {
+            throw new IndexOutOfBoundsException(
+                    "index = " + index + ", допустимый диапазон: 0.." + (n - 1)
+            );
+        }
+
+        int i = index + 1;
+        long res = 0;
+        while (i > 0) {
+            res += node(i);
+            i -= i & -i;
+        }
+        return res;
+    }
+
+    public long rangeSum(int left, int right) {
+        if (left > right) {
+            throw new IllegalArgumentException("left > right");
+        }
+        if (left < 0 || right >= n) {
+            throw new IndexOutOfBoundsException("left = " + left + ", right = " + right);
+        }
+        if (left == 0) {
+            return prefixSum(right);
+        }
+        return prefixSum(right) - prefixSum(left - 1);
+    }
+
+    public int lowerBound(long target) {
+        if (target <= 0) { return 0; }
+
+        long total = prefixSum(n - 1);
+        if (target > total) { return -1; }
+
+        int idx = 0;
+        int bit = Integer.highestOneBit(n);
+        long sum = 0;
+
+        while (bit != 0) {
+            int next = idx + bit;
+            if (next <= n) {
+                long node = node(next);
+                if (sum + node < target) {
+                    sum += node;
+                    idx = next;
+                }
+            }
+            bit >>= 1;
+        }
+        return Math.min(idx, n - 1);
+    }
+
+    public int size() {
+        return n;
+    }
+
+    public int stripes() {
+        return shards.length;
+    }
+
+    private long node(int pos) {
+        long res = 0;
+        for (ConcurrentFenwickTree shard : shards) {
+            res += shard.node(pos);
+        }
+        return res;
+    }
+
+    private int shardIndex() {
+        long id = Thread.currentThread().getId();
+        int h = (int) (id * 0x9E3779B97F4A7C15L >>> 32); // перемешиваем последовательные id
+        return h & mask;
+    }
+}
@@ -0,0 +1,210 @@
+package ds.query;
+
+import ds.FenwickTree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Класс OfflineQueryEngine — пакетные запросы над неизменяемым int[] через проход деревом Фенвика.
+ * Методы:
+ *  - long inversionCount()
+ *  - int distinctCount()
+ *  - void distinctInRange(int[] lefts, int[] rights, int[] out)
+ *  - void distinctInRange(int[] lefts, int[] rights, int[] out, ExecutorService executor, int parallelism)
+ *
+ * Значения сжимаются в ранги 0..distinctCount-1 один раз в конструкторе (сортировка пар
+ * значение/индекс), там же считаются prev[i] / next[i] — предыдущее и следующее вхождение
+ * того же значения.
+ *
+ * Число различных на [l, r]: запросы сортируются подсчётом по r, затем проход по i
+ * держит в дереве единицу только в последнем вхождении каждого значения среди 0..i
+ * (update(prev[i], -1), update(i, +1)), ответ — rangeSum(l, r). Итого O((n + q) log n).
+ *
+ * Параллельный режим режет отсортированные запросы на куски по правому концу. Кусок,
+ * начинающийся с r = R0, стартует с состояния после префикса 0..R0-1: единица в i < R0,
+ * если next[i] >= R0, — это массив строится линейным build без прохода по префиксу.
+ * Куски независимы, у каждого своё дерево.
+ */
+public class OfflineQueryEngine {
+
+    private final int n;
+    private final int[] rank;
+    private final int distinct;
+    private final int[] prev;
+    private final int[] next;
+
+    public OfflineQueryEngine(int[] values) {
+        if (values == null) {
+            throw new IllegalArgumentException("values is null");
+        }
+        this.n = values.length;
+
+        // пары (значение, индекс) в одном long: одна сортировка даёт и ранги, и соседние вхождения
+        long[] keys = new long[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = ((long) values[i] << 32) | i;
+        }
+        Arrays.sort(keys);
+
+        this.rank = new int[n];
+        this.prev = new int[n];
+        this.next = new int[n];
+        int m = 0;
+        for (int k = 0; k < n; k++) {
+            int i = (int) keys[k];
+            boolean sameAsPrev = k > 0 && (keys[k] >> 32) == (keys[k - 1] >> 32);
+            if (!sameAsPrev) {
+                m++;
+            }
+            rank[i] = m - 1;
+            prev[i] = sameAsPrev ? (int) keys[k - 1] : -1;
+            next[i] = k + 1 < n && (keys[k + 1] >> 32) == (keys[k] >> 32) ? (int) keys[k + 1] : n;
+        }
+        this.distinct = m;
+    }
+
+    /** Число пар i < j с values[i] > values[j]. */
+    public long inversionCount() {
+        if (n < 2) {
+            return 0;
+        }
+        FenwickTree counts = new FenwickTree(distinct, true);
+        long inversions = 0;
+        for (int j = 0; j < n; j++) {
+            // j элементов уже в дереве, prefixSum(rank) из них не больше values[j]
+            inversions += j - counts.prefixSum(rank[j]);
+            counts.update(rank[j], 1);
+        }
+        return inversions;
+    }
+
+    public int distinctCount() {
+        return distinct;
+    }
+
+    public int size() {
+        return n;
+    }
+
+    /** out[k] — число различных значений на отрезке [lefts[k], rights[k]]. */
+    public void distinctInRange(int[] lefts, int[] rights, int[] out) {
+        int[] order = sortByRight(lefts, rights, out);
+        if (order.length > 0) {
+            sweep(lefts, rights, out, order, 0, order.length);
+        }
+    }
+
+    /** То же, запросы делятся на parallelism независимых кусков по правому концу. */
+    public void distinctInRange(int[] lefts, int[] rights, int[] out,
+                                ExecutorService executor, int parallelism) {
+        if (executor == null) {
+            throw new IllegalArgumentException("executor is null");
+        }
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism must be > 0");
+        }
+        int[] order = sortByRight(lefts, rights, out);
+        int q = order.length;
+        if (q == 0) {
+            return;
+        }
+        // каждый кусок платит O(n) за начальный build, поэтому кусков не больше потоков
+        int chunks = Math.min(parallelism, q);
+        if (chunks == 1) {
+            sweep(lefts, rights, out, order, 0, q);
+            return;
+        }
+        int step = (q + chunks - 1) / chunks;
+        List<Callable<Void>> tasks = new ArrayList<>(chunks);
+        for (int from = 0; from < q; from += step) {
+            int lo = from;
+            int hi = Math.min(q, from + step);
+            tasks.add(() -> {
+                sweep(lefts, rights, out, order, lo, hi);
+                return null;
+            });
+        }
+        try {
+            for (Future<Void> f : executor.invokeAll(tasks)) {
+                f.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("query batch interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /* ответы на order[from..to) — запросы, отсортированные по правому концу */
+    private void sweep(int[] lefts, int[] rights, int[] out, int[] order, int from, int to) {
+        int start = rights[order[from]];
+        int end = rights[order[to - 1]];
+
+        int[] init = new int[end + 1];
+        for (int i = 0; i < start; i++) {
+            if (next[i] >= start) {
+                init[i] = 1;
+            }
+        }
+        FenwickTree last = new FenwickTree(end + 1, true);
+        last.build(init);
+
+        int k = from;
+        for (int i = start; i <= end; i++) {
+            if (prev[i] >= 0) {
+                last.update(prev[i], -1);
+            }
+            last.update(i, 1);
+            while (k < to && rights[order[k]] == i) {
+                int query = order[k];
+                out[query] = last.rangeSum(lefts[query], i);
+                k++;
+            }
+        }
+    }
+
+    /* проверка запросов и сортировка подсчётом по правому концу, O(n + q) */
+    private int[] sortByRight(int[] lefts, int[] rights, int[] out) {
+        if (lefts == null || rights == null || out == null) {
+            throw new IllegalArgumentException("lefts, rights or out is null");
+        }
+        if (lefts.length != rights.length || out.length != lefts.length) {
+            throw new IllegalArgumentException("lefts, rights and out must have the same length");
+        }
+        int q = lefts.length;
+        int[] count = new int[n + 1];
+        for (int k = 0; k < q; k++) {
+            int left = lefts[k];
+            int right = rights[k];
+            if (left > right) {
+                throw new IllegalArgumentException("left > right at query " + k);
+            }
+            if (left < 0 || right >= n) {
+                throw new IndexOutOfBoundsException("left = " + left + ", right = " + right);
+            }
+            count[right + 1]++;
+        }
+        for (int i = 0; i < n; i++) {
+            count[i + 1] += count[i];
+        }
+        int[] order = new int[q];
+        for (int k = 0; k < q; k++) {
+            order[count[rights[k]]++] = k;
+        }
+        return order;
+    }
+}
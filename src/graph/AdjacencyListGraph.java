@@ -1,18 +1,21 @@
 package graph;
 
+import ds.IntArrayList;
 import ds.MyList;
 import ds.SimpleArrayList;
 
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
 /* adjacency graph list implementation */
 public class AdjacencyListGraph<T> implements Graph<T> {
     private final boolean directed;
     private final SimpleArrayList<T> vertices;
-    private SimpleArrayList<Integer>[] adj;
-    @SuppressWarnings("unchecked")
+    private IntArrayList[] adj;
     public AdjacencyListGraph(boolean directed, int initialCapacity) {
         this.directed = directed;
         this.vertices = new SimpleArrayList<>();
-        this.adj = (SimpleArrayList<Integer>[]) new SimpleArrayList[initialCapacity];
+        this.adj = new IntArrayList[initialCapacity];
     }
     public AdjacencyListGraph(boolean directed) {
         this(directed, 8);
@@ -23,7 +26,7 @@ public class AdjacencyListGraph<T> implements Graph<T> {
         int id = vertices.size();
         vertices.add(value);
         ensureAdjCapacity(id + 1);
-        adj[id] = new SimpleArrayList<>();
+        adj[id] = new IntArrayList();
         return id;
     }
     @Override
@@ -46,6 +49,21 @@ public class AdjacencyListGraph<T> implements Graph<T> {
         return adj[v];
     }
     @Override
+    public int degree(int v) {
+        checkVertex(v);
+        return adj[v].size();
+    }
+    @Override
+    public int neighbor(int v, int i) {
+        checkVertex(v);
+        return adj[v].getInt(i);
+    }
+    @Override
+    public void forEachNeighbor(int v, IntConsumer action) {
+        checkVertex(v);
+        adj[v].forEach(action);
+    }
+    @Override
     public int vertexCount() {
         return vertices.size();
     }
@@ -54,7 +72,6 @@ public class AdjacencyListGraph<T> implements Graph<T> {
         return directed;
     }
 
-    @SuppressWarnings("unchecked")
     private void ensureAdjCapacity(int needed) {
         if (needed <= adj.length) {
             return;
@@ -63,12 +80,7 @@ public class AdjacencyListGraph<T> implements Graph<T> {
         if (newCap < needed) {
             newCap = needed;
         }
-        SimpleArrayList<Integer>[] newAdj =
-                (SimpleArrayList<Integer>[]) new SimpleArrayList[newCap];
-        for (int i = 0; i < adj.length; i++) {
-            newAdj[i] = adj[i];
-        }
-        adj = newAdj;
+        adj = Arrays.copyOf(adj, newCap);
     }
 
     private void checkVertex(int v) {
@@ -0,0 +1,265 @@
+package graph;
+
+import ds.MyList;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/* compressed sparse row graph (immutable) */
+public class CsrGraph<T> implements Graph<T> {
+    private final boolean directed;
+    private final Object[] values;
+    private final int[] offsets; // соседи v: targets[offsets[v] .. offsets[v + 1])
+    private final int[] targets;
+
+    private CsrGraph(boolean directed, Object[] values, int[] offsets, int[] targets) {
+        this.directed = directed;
+        this.values = values;
+        this.offsets = offsets;
+        this.targets = targets;
+    }
+
+    /** Замораживает изменяемый граф: два прохода по спискам смежности, O(V + E). */
+    public static <T> CsrGraph<T> freeze(Graph<T> graph) {
+        if (graph == null) {
+            throw new IllegalArgumentException("graph is null");
+        }
+        int n = graph.vertexCount();
+        Object[] values = new Object[n];
+        int[] offsets = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            values[v] = graph.getVertexValue(v);
+            offsets[v + 1] = offsets[v] + graph.degree(v);
+        }
+        int[] targets = new int[offsets[n]];
+        for (int v = 0; v < n; v++) {
+            int base = offsets[v];
+            int degree = offsets[v + 1] - base;
+            for (int i = 0; i < degree; i++) {
+                targets[base + i] = graph.neighbor(v, i);
+            }
+        }
+        return new CsrGraph<>(graph.isDirected(), values, offsets, targets);
+    }
+
+    /** Граф с развёрнутыми рёбрами (входящие соседи), раскладка подсчётом, O(V + E). */
+    public static <T> CsrGraph<T> transpose(Graph<T> graph) {
+        if (graph == null) {
+            throw new IllegalArgumentException("graph is null");
+        }
+        int n = graph.vertexCount();
+        Object[] values = new Object[n];
+        int[] offsets = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            values[v] = graph.getVertexValue(v);
+            int degree = graph.degree(v);
+            for (int i = 0; i < degree; i++) {
+                offsets[graph.neighbor(v, i) + 1]++;
+            }
+        }
+        for (int v = 0; v < n; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+        int[] fill = Arrays.copyOf(offsets, n);
+        int[] targets = new int[offsets[n]];
+        for (int v = 0; v < n; v++) {
+            int degree = graph.degree(v);
+            for (int i = 0; i < degree; i++) {
+                targets[fill[graph.neighbor(v, i)]++] = v;
+            }
+        }
+        return new CsrGraph<>(graph.isDirected(), values, offsets, targets);
+    }
+
+    @Override
+    public int addVertex(T value) {
+        throw new UnsupportedOperationException("CsrGraph is immutable, use CsrGraph.Builder");
+    }
+    @Override
+    public void addEdge(int from, int to) {
+        throw new UnsupportedOperationException("CsrGraph is immutable, use CsrGraph.Builder");
+    }
+    @Override
+    @SuppressWarnings("unchecked")
+    public T getVertexValue(int v) {
+        checkVertex(v);
+        return (T) values[v];
+    }
+    /** Представление только для чтения; для обхода без боксинга — cursor() или forEachNeighbor. */
+    @Override
+    public MyList<Integer> neighbors(int v) {
+        checkVertex(v);
+        return new NeighborView(offsets[v], offsets[v + 1]);
+    }
+    @Override
+    public int vertexCount() {
+        return values.length;
+    }
+    @Override
+    public boolean isDirected() {
+        return directed;
+    }
+
+    public int edgeCount() {
+        return targets.length;
+    }
+
+    @Override
+    public int degree(int v) {
+        checkVertex(v);
+        return offsets[v + 1] - offsets[v];
+    }
+
+    @Override
+    public int neighbor(int v, int i) {
+        checkVertex(v);
+        int pos = offsets[v] + i;
+        if (i < 0 || pos >= offsets[v + 1]) {
+            throw new IndexOutOfBoundsException("vertex = " + v + ", i = " + i);
+        }
+        return targets[pos];
+    }
+
+    @Override
+    public void forEachNeighbor(int v, IntConsumer action) {
+        checkVertex(v);
+        for (int p = offsets[v], end = offsets[v + 1]; p < end; p++) {
+            action.accept(targets[p]);
+        }
+    }
+
+    /** Переиспользуемый курсор по соседям: один объект на весь обход. */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    public final class Cursor {
+        private int pos;
+        private int end;
+
+        private Cursor() {
+        }
+
+        public Cursor reset(int v) {
+            checkVertex(v);
+            pos = offsets[v];
+            end = offsets[v + 1];
+            return this;
+        }
+
+        public boolean hasNext() {
+            return pos < end;
+        }
+
+        public int next() {
+            if (pos >= end) {
+                throw new IndexOutOfBoundsException("no more neighbors");
+            }
+            return targets[pos++];
+        }
+    }
+
+    /* builder: копит рёбра в int[] и раскладывает их подсчётом, без промежуточных списков */
+    public static class Builder<T> {
+        private final boolean directed;
+        private Object[] values = new Object[8];
+        private int vertexCount;
+        private int[] from = new int[8];
+        private int[] to = new int[8];
+        private int edgeCount;
+
+        public Builder(boolean directed) {
+            this.directed = directed;
+        }
+
+        public int addVertex(T value) {
+            if (vertexCount == values.length) {
+                values = Arrays.copyOf(values, values.length * 2);
+            }
+            values[vertexCount] = value;
+            return vertexCount++;
+        }
+
+        public void addEdge(int u, int v) {
+            checkBuilderVertex(u);
+            checkBuilderVertex(v);
+            push(u, v);
+            if (!directed && u != v) {
+                push(v, u);
+            }
+        }
+
+        public CsrGraph<T> build() {
+            int n = vertexCount;
+            int[] offsets = new int[n + 1];
+            for (int e = 0; e < edgeCount; e++) {
+                offsets[from[e] + 1]++;
+            }
+            for (int v = 0; v < n; v++) {
+                offsets[v + 1] += offsets[v];
+            }
+            int[] fill = Arrays.copyOf(offsets, n);
+            int[] targets = new int[edgeCount];
+            for (int e = 0; e < edgeCount; e++) {
+                targets[fill[from[e]]++] = to[e];
+            }
+            return new CsrGraph<>(directed, Arrays.copyOf(values, n), offsets, targets);
+        }
+
+        private void push(int u, int v) {
+            if (edgeCount == from.length) {
+                from = Arrays.copyOf(from, from.length * 2);
+                to = Arrays.copyOf(to, to.length * 2);
+            }
+            from[edgeCount] = u;
+            to[edgeCount] = v;
+            edgeCount++;
+        }
+
+        private void checkBuilderVertex(int v) {
+            if (v < 0 || v >= vertexCount) {
+                throw new IndexOutOfBoundsException("vertex = " + v);
+            }
+        }
+    }
+
+    private final class NeighborView implements MyList<Integer> {
+        private final int from;
+        private final int to;
+
+        NeighborView(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public void add(Integer value) {
+            throw new UnsupportedOperationException("CsrGraph is immutable");
+        }
+        @Override
+        public Integer get(int index) {
+            if (index < 0 || index >= to - from) {
+                throw new IndexOutOfBoundsException("index = " + index);
+            }
+            return targets[from + index];
+        }
+        @Override
+        public void set(int index, Integer value) {
+            throw new UnsupportedOperationException("CsrGraph is immutable");
+        }
+        @Override
+        public int size() {
+            return to - from;
+        }
+        @Override
+        public boolean isEmpty() {
+            return to == from;
+        }
+    }
+
+    private void checkVertex(int v) {
+        if (v < 0 || v >= values.length) {
+            throw new IndexOutOfBoundsException("vertex = " + v);
+        }
+    }
+}
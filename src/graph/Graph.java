@@ -1,5 +1,8 @@
 package graph;
 import ds.MyList;
+
+import java.util.function.IntConsumer;
+
 /* graph class */
 public interface Graph<T> {
     int addVertex(T value);
@@ -8,4 +11,18 @@ public interface Graph<T> {
     MyList<Integer> neighbors(int v);
     int vertexCount();
     boolean isDirected();
-}
\ No newline at end of file
+
+    /* primitive access, реализации переопределяют без боксинга */
+    default int degree(int v) {
+        return neighbors(v).size();
+    }
+    default int neighbor(int v, int i) {
+        return neighbors(v).get(i);
+    }
+    default void forEachNeighbor(int v, IntConsumer action) {
+        MyList<Integer> adj = neighbors(v);
+        for (int i = 0; i < adj.size(); i++) {
+            action.accept(adj.get(i));
+        }
+    }
+}
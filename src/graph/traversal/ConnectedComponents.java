@@ -0,0 +1,166 @@
+package graph.traversal;
+
+import graph.Graph;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Класс ConnectedComponents — компоненты связности параллельной системой непересекающихся множеств.
+ * Методы:
+ *  - static ConnectedComponents compute(Graph<?> graph)
+ *  - static ConnectedComponents compute(Graph<?> graph, ExecutorService executor, int parallelism)
+ *  - int componentOf(int v) / int count() / int componentSize(int component)
+ *  - boolean connected(int u, int v) / int largestSize()
+ *
+ * Куски вершин параллельно объединяют концы своих рёбер в общем AtomicIntegerArray родителей
+ * без блокировок: корень с большим номером подвешивается CAS-ом под корень с меньшим,
+ * find сокращает путь вдвое (тоже CAS). Родитель всегда меньше вершины, поэтому циклов нет,
+ * а корень компоненты — её наименьшая вершина. Для неориентированного графа каждое ребро
+ * хранится дважды и обрабатывается один раз (u < v); ориентированный граф даёт компоненты
+ * слабой связности. Номера компонент 0..count-1 идут в порядке наименьших вершин.
+ */
+public class ConnectedComponents {
+
+    private static final int GRAIN = 4096;
+
+    private final int[] component;
+    private final int[] sizes;
+
+    private ConnectedComponents(int[] component, int[] sizes) {
+        this.component = component;
+        this.sizes = sizes;
+    }
+
+    public static ConnectedComponents compute(Graph<?> graph) {
+        return compute(graph, ForkJoinPool.commonPool(), ForkJoinPool.getCommonPoolParallelism());
+    }
+
+    public static ConnectedComponents compute(Graph<?> graph, ExecutorService executor, int parallelism) {
+        if (graph == null) {
+            throw new IllegalArgumentException("graph is null");
+        }
+        ParallelLoop loop = new ParallelLoop(executor, parallelism);
+        int n = graph.vertexCount();
+        boolean directed = graph.isDirected();
+        AtomicIntegerArray parent = new AtomicIntegerArray(n);
+        for (int v = 0; v < n; v++) {
+            parent.set(v, v);
+        }
+
+        loop.sum(n, GRAIN, (from, to) -> {
+            for (int v = from; v < to; v++) {
+                int degree = graph.degree(v);
+                for (int i = 0; i < degree; i++) {
+                    int u = graph.neighbor(v, i);
+                    if (directed || u < v) {
+                        union(parent, u, v);
+                    }
+                }
+            }
+            return 0;
+        });
+
+        int[] component = new int[n];
+        loop.sum(n, GRAIN, (from, to) -> {
+            for (int v = from; v < to; v++) {
+                component[v] = find(parent, v);
+            }
+            return 0;
+        });
+
+        // корень — наименьшая вершина компоненты, поэтому к моменту v его номер уже выдан
+        int count = 0;
+        int[] sizes = new int[8];
+        for (int v = 0; v < n; v++) {
+            int root = component[v];
+            int id;
+            if (root == v) {
+                if (count == sizes.length) {
+                    sizes = Arrays.copyOf(sizes, count * 2);
+                }
+                id = count++;
+            } else {
+                id = component[root];
+            }
+            component[v] = id;
+            sizes[id]++;
+        }
+        return new ConnectedComponents(component, Arrays.copyOf(sizes, count));
+    }
+
+    /** Номер компоненты вершины v, 0..count() - 1. */
+    public int componentOf(int v) {
+        checkVertex(v);
+        return component[v];
+    }
+
+    public boolean connected(int u, int v) {
+        checkVertex(u);
+        checkVertex(v);
+        return component[u] == component[v];
+    }
+
+    public int count() {
+        return sizes.length;
+    }
+
+    public int componentSize(int id) {
+        if (id < 0 || id >= sizes.length) {
+            throw new IndexOutOfBoundsException("component = " + id);
+        }
+        return sizes[id];
+    }
+
+    /** Размер наибольшей компоненты (0 для пустого графа). */
+    public int largestSize() {
+        int best = 0;
+        for (int i = 0; i < sizes.length; i++) {
+            if (sizes[i] > best) {
+                best = sizes[i];
+            }
+        }
+        return best;
+    }
+
+    private static void union(AtomicIntegerArray parent, int a, int b) {
+        while (true) {
+            a = find(parent, a);
+            b = find(parent, b);
+            if (a == b) {
+                return;
+            }
+            if (a < b) {
+                int t = a;
+                a = b;
+                b = t;
+            }
+            // a > b: подвешиваем a под b, если a всё ещё корень
+            if (parent.compareAndSet(a, a, b)) {
+                return;
+            }
+        }
+    }
+
+    private static int find(AtomicIntegerArray parent, int x) {
+        while (true) {
+            int p = parent.get(x);
+            if (p == x) {
+                return x;
+            }
+            int gp = parent.get(p);
+            if (gp != p) {
+                parent.compareAndSet(x, p, gp);
+            }
+            x = gp;
+        }
+    }
+
+    private void checkVertex(int v) {
+        if (v < 0 || v >= component.length) {
+            throw new IndexOutOfBoundsException("vertex = " + v);
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package graph.traversal;
+
+import graph.CsrGraph;
+import graph.Graph;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Класс ParallelBfs — параллельный поиск в ширину с переключением направления (top-down / bottom-up).
+ * Методы:
+ *  - Result search(int source)
+ *
+ * Фронт, следующий фронт и множество посещённых вершин — битсеты по 64 вершины в слове.
+ * Top-down: куски слов фронта раскрывают исходящие рёбра, вершину забирает тот, кто первым
+ * поставил её бит в visited (CAS). Bottom-up: каждая непосещённая вершина ищет среди входящих
+ * соседей вершину фронта и останавливается на первой; куски владеют своими словами битсетов,
+ * поэтому записи идут без CAS. Направление выбирается по эвристике Beamer:
+ * в bottom-up, когда рёбер фронта больше, чем непросмотренных рёбер / ALPHA,
+ * обратно в top-down, когда фронт меньше n / BETA.
+ *
+ * Для ориентированного графа bottom-up нужен транспонированный граф: он строится один раз
+ * в конструкторе (CsrGraph.transpose). Самый быстрый вход — CsrGraph, но подходит любой Graph
+ * с эффективными degree/neighbor (например, AdjacencyListGraph).
+ */
+public class ParallelBfs {
+
+    private static final int ALPHA = 14;
+    private static final int BETA = 24;
+    private static final int GRAIN_WORDS = 64; // 4096 вершин на кусок минимум
+
+    private final Graph<?> out;
+    private final Graph<?> in;
+    private final int n;
+    private final int words;
+    private final long totalEdges;
+    private final ParallelLoop loop;
+
+    /** BFS на общем пуле ForkJoinPool.commonPool(). */
+    public ParallelBfs(Graph<?> graph) {
+        this(graph, ForkJoinPool.commonPool(), ForkJoinPool.getCommonPoolParallelism());
+    }
+
+    public ParallelBfs(Graph<?> graph, ExecutorService executor, int parallelism) {
+        if (graph == null) {
+            throw new IllegalArgumentException("graph is null");
+        }
+        this.loop = new ParallelLoop(executor, parallelism);
+        this.out = graph;
+        this.in = graph.isDirected() ? CsrGraph.transpose(graph) : graph;
+        this.n = graph.vertexCount();
+        this.words = (n + 63) >>> 6;
+        this.totalEdges = loop.sum(n, GRAIN_WORDS << 6, (from, to) -> {
+            long s = 0;
+            for (int v = from; v < to; v++) {
+                s += graph.degree(v);
+            }
+            return s;
+        });
+    }
+
+    /** Результат обхода: расстояния (-1 — недостижима) и родители в дереве BFS. */
+    public static final class Result {
+        private final int[] distance;
+        private final int[] parent;
+        private final int reached;
+        private final int depth;
+        private final int bottomUpLevels;
+
+        private Result(int[] distance, int[] parent, int reached, int depth, int bottomUpLevels) {
+            this.distance = distance;
+            this.parent = parent;
+            this.reached = reached;
+            this.depth = depth;
+            this.bottomUpLevels = bottomUpLevels;
+        }
+
+        public int distance(int v) {
+            checkVertex(v, distance.length);
+            return distance[v];
+        }
+
+        /** Родитель в дереве BFS; для источника — он сам, для недостижимой вершины — -1. */
+        public int parent(int v) {
+            checkVertex(v, parent.length);
+            return parent[v];
+        }
+
+        public int[] getDistanceSnapshot() {
+            return Arrays.copyOf(distance, distance.length);
+        }
+
+        public int reachedCount() {
+            return reached;
+        }
+
+        /** Наибольшее расстояние до достижимой вершины. */
+        public int depth() {
+            return depth;
+        }
+
+        /** Сколько уровней обработано снизу вверх (для диагностики эвристики). */
+        public int bottomUpLevels() {
+            return bottomUpLevels;
+        }
+    }
+
+    public Result search(int source) {
+        checkVertex(source, n);
+        int[] distance = new int[n];
+        int[] parent = new int[n];
+        Arrays.fill(distance, -1);
+        Arrays.fill(parent, -1);
+        AtomicLongArray visited = new AtomicLongArray(words);
+        AtomicLongArray frontier = new AtomicLongArray(words);
+        AtomicLongArray next = new AtomicLongArray(words);
+
+        distance[source] = 0;
+        parent[source] = source;
+        setBit(visited, source);
+        setBit(frontier, source);
+
+        long frontierEdges = out.degree(source);
+        long unexploredEdges = totalEdges - frontierEdges;
+        int frontierSize = 1;
+        int reached = 1;
+        int level = 0;
+        int bottomUpLevels = 0;
+        boolean bottomUp = false;
+
+        while (frontierSize > 0) {
+            if (!bottomUp && frontierEdges > unexploredEdges / ALPHA) {
+                bottomUp = true;
+            } else if (bottomUp && frontierSize < n / BETA) {
+                bottomUp = false;
+            }
+            AtomicLongArray cur = frontier;
+            AtomicLongArray nxt = next;
+            for (int w = 0; w < words; w++) {
+                nxt.set(w, 0L);
+            }
+            int nextLevel = level + 1;
+            if (bottomUp) {
+                frontierEdges = loop.sum(words, GRAIN_WORDS, (from, to) ->
+                        bottomUpStep(from, to, nextLevel, cur, nxt, visited, distance, parent));
+                bottomUpLevels++;
+            } else {
+                frontierEdges = loop.sum(words, GRAIN_WORDS, (from, to) ->
+                        topDownStep(from, to, nextLevel, cur, nxt, visited, distance, parent));
+            }
+            unexploredEdges -= frontierEdges;
+
+            frontierSize = 0;
+            for (int w = 0; w < words; w++) {
+                frontierSize += Long.bitCount(nxt.get(w));
+            }
+            if (frontierSize > 0) {
+                level = nextLevel;
+                reached += frontierSize;
+            }
+            frontier = nxt;
+            next = cur;
+        }
+        return new Result(distance, parent, reached, level, bottomUpLevels);
+    }
+
+    /** Раскрывает исходящие рёбра вершин фронта из слов [from, to); возвращает сумму степеней новых вершин. */
+    private long topDownStep(int from, int to, int level, AtomicLongArray frontier, AtomicLongArray next,
+                             AtomicLongArray visited, int[] distance, int[] parent) {
+        long edges = 0;
+        for (int w = from; w < to; w++) {
+            long word = frontier.get(w);
+            while (word != 0) {
+                int v = (w << 6) | Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+                int degree = out.degree(v);
+                for (int i = 0; i < degree; i++) {
+                    int u = out.neighbor(v, i);
+                    if ((visited.get(u >>> 6) & (1L << u)) == 0 && trySetBit(visited, u)) {
+                        distance[u] = level;
+                        parent[u] = v;
+                        setBit(next, u);
+                        edges += out.degree(u);
+                    }
+                }
+            }
+        }
+        return edges;
+    }
+
+    /** Непосещённые вершины из слов [from, to) ищут родителя во фронте; слова принадлежат только этому куску. */
+    private long bottomUpStep(int from, int to, int level, AtomicLongArray frontier, AtomicLongArray next,
+                              AtomicLongArray visited, int[] distance, int[] parent) {
+        long edges = 0;
+        for (int w = from; w < to; w++) {
+            long seen = visited.get(w);
+            long unvisited = ~seen;
+            if (w == words - 1 && (n & 63) != 0) {
+                unvisited &= (1L << (n & 63)) - 1;
+            }
+            long found = 0;
+            while (unvisited != 0) {
+                long bit = unvisited & -unvisited;
+                unvisited ^= bit;
+                int v = (w << 6) | Long.numberOfTrailingZeros(bit);
+                int degree = in.degree(v);
+                for (int i = 0; i < degree; i++) {
+                    int u = in.neighbor(v, i);
+                    if ((frontier.get(u >>> 6) & (1L << u)) != 0) {
+                        distance[v] = level;
+                        parent[v] = u;
+                        found |= bit;
+                        edges += out.degree(v);
+                        break;
+                    }
+                }
+            }
+            if (found != 0) {
+                next.set(w, found);
+                visited.set(w, seen | found);
+            }
+        }
+        return edges;
+    }
+
+    private static void setBit(AtomicLongArray bits, int v) {
+        bits.getAndAccumulate(v >>> 6, 1L << v, (a, b) -> a | b);
+    }
+
+    private static boolean trySetBit(AtomicLongArray bits, int v) {
+        int w = v >>> 6;
+        long mask = 1L << v;
+        while (true) {
+            long cur = bits.get(w);
+            if ((cur & mask) != 0) {
+                return false;
+            }
+            if (bits.compareAndSet(w, cur, cur | mask)) {
+                return true;
+            }
+        }
+    }
+
+    private static void checkVertex(int v, int n) {
+        if (v < 0 || v >= n) {
+            throw new IndexOutOfBoundsException("vertex = " + v);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package graph.traversal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/* параллельный цикл по диапазону [0, size) кусками на заданном пуле, с суммой результатов */
+final class ParallelLoop {
+
+    interface RangeBody {
+        long run(int from, int to);
+    }
+
+    private final ExecutorService executor;
+    private final int parallelism;
+
+    ParallelLoop(ExecutorService executor, int parallelism) {
+        if (executor == null) {
+            throw new IllegalArgumentException("executor is null");
+        }
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism must be > 0");
+        }
+        this.executor = executor;
+        this.parallelism = parallelism;
+    }
+
+    int parallelism() {
+        return parallelism;
+    }
+
+    /** Выполняет body на кусках не меньше grain; мелкие диапазоны считаются в вызывающем потоке. */
+    long sum(int size, int grain, RangeBody body) {
+        if (size <= 0) {
+            return 0;
+        }
+        // несколько кусков на поток, чтобы неравномерные куски (высокие степени) выравнивались
+        int chunks = Math.min(parallelism * 4, (size + grain - 1) / grain);
+        if (chunks <= 1 || parallelism == 1) {
+            return body.run(0, size);
+        }
+        int step = (size + chunks - 1) / chunks;
+        List<Callable<Long>> tasks = new ArrayList<>(chunks);
+        for (int from = 0; from < size; from += step) {
+            int lo = from;
+            int hi = Math.min(size, from + step);
+            tasks.add(() -> body.run(lo, hi));
+        }
+        long total = 0;
+        try {
+            for (Future<Long> f : executor.invokeAll(tasks)) {
+                total += f.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("traversal interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,189 @@
+package graph.traversal;
+
+import ds.FenwickTree;
+import graph.Graph;
+
+/**
+ * Класс SubtreeQueryEngine — суммы по поддереву и по пути до корня на корневом дереве за O(log n).
+ * Методы:
+ *  - void update(int v, int delta) / void set(int v, int value) / int value(int v)
+ *  - int subtreeSum(int v)
+ *  - int pathToRootSum(int v)
+ *  - int subtreeSize(int v) / boolean isAncestor(int a, int b)
+ *  - int tin(int v) / int tout(int v)
+ *
+ * Эйлеров обход считается итеративным DFS с явным стеком (без рекурсии, поэтому деревья
+ * на десятки миллионов вершин не упираются в StackOverflowError). Поддерево v занимает
+ * отрезок позиций [tin[v], tout[v]]. Два дерева Фенвика (компактных, без копии arr):
+ *  - subtree: значение v в позиции tin[v], сумма поддерева — rangeSum(tin, tout);
+ *  - path:    значение v прибавлено ко всему отрезку [tin[v], tout[v]] через разности,
+ *             сумма пути от u до корня — prefixSum(tin[u]).
+ * Оба строятся линейным build; update меняет по две точки в каждом.
+ *
+ * Граф должен быть деревом, связным из root: неориентированным или ориентированным от корня.
+ */
+public class SubtreeQueryEngine {
+
+    private final int n;
+    private final int root;
+    private final int[] tin;
+    private final int[] tout;
+    private final int[] parent;
+    private final FenwickTree subtree;
+    private final FenwickTree path;
+
+    public SubtreeQueryEngine(Graph<?> graph, int root) {
+        this(graph, root, null);
+    }
+
+    /** values[v] — начальное значение вершины v (null — все нули). */
+    public SubtreeQueryEngine(Graph<?> graph, int root, int[] values) {
+        if (graph == null) {
+            throw new IllegalArgumentException("graph is null");
+        }
+        this.n = graph.vertexCount();
+        if (n == 0) {
+            throw new IllegalArgumentException("graph is empty");
+        }
+        if (root < 0 || root >= n) {
+            throw new IndexOutOfBoundsException("root = " + root);
+        }
+        if (values != null && values.length != n) {
+            throw new IllegalArgumentException(
+                    "values length (" + values.length + ") != n (" + n + ")");
+        }
+        this.root = root;
+        this.tin = new int[n];
+        this.tout = new int[n];
+        this.parent = new int[n];
+        eulerTour(graph);
+
+        int[] byPosition = new int[n];
+        int[] diff = new int[n];
+        if (values != null) {
+            for (int v = 0; v < n; v++) {
+                byPosition[tin[v]] = values[v];
+                diff[tin[v]] += values[v];
+                if (tout[v] + 1 < n) {
+                    diff[tout[v] + 1] -= values[v];
+                }
+            }
+        }
+        this.subtree = new FenwickTree(n, true);
+        this.path = new FenwickTree(n, true);
+        subtree.build(byPosition);
+        path.build(diff);
+    }
+
+    public void update(int v, int delta) {
+        checkVertex(v);
+        subtree.update(tin[v], delta);
+        path.update(tin[v], delta);
+        if (tout[v] + 1 < n) {
+            path.update(tout[v] + 1, -delta);
+        }
+    }
+
+    public void set(int v, int value) {
+        update(v, value - value(v));
+    }
+
+    public int value(int v) {
+        checkVertex(v);
+        return subtree.get(tin[v]);
+    }
+
+    public int subtreeSum(int v) {
+        checkVertex(v);
+        return subtree.rangeSum(tin[v], tout[v]);
+    }
+
+    /** Сумма значений на пути от v до корня включительно. */
+    public int pathToRootSum(int v) {
+        checkVertex(v);
+        return path.prefixSum(tin[v]);
+    }
+
+    public int subtreeSize(int v) {
+        checkVertex(v);
+        return tout[v] - tin[v] + 1;
+    }
+
+    /** true, если a лежит на пути от b до корня (в том числе a == b). */
+    public boolean isAncestor(int a, int b) {
+        checkVertex(a);
+        checkVertex(b);
+        return tin[a] <= tin[b] && tout[b] <= tout[a];
+    }
+
+    /** Родитель в корневом дереве; для корня — -1. */
+    public int parent(int v) {
+        checkVertex(v);
+        return parent[v];
+    }
+
+    public int tin(int v) {
+        checkVertex(v);
+        return tin[v];
+    }
+
+    public int tout(int v) {
+        checkVertex(v);
+        return tout[v];
+    }
+
+    public int root() {
+        return root;
+    }
+
+    public int size() {
+        return n;
+    }
+
+    /* итеративный DFS: stack — путь от корня, next[v] — номер следующего соседа v для просмотра;
+       в неориентированном графе ребро к родителю пропускается ровно один раз (skippedParent[v]),
+       поэтому кратное ребро v-parent видно как цикл */
+    private void eulerTour(Graph<?> graph) {
+        boolean directed = graph.isDirected();
+        int[] stack = new int[n];
+        int[] next = new int[n];
+        boolean[] skippedParent = directed ? null : new boolean[n];
+        for (int v = 0; v < n; v++) {
+            tin[v] = -1;
+        }
+        int top = 0;
+        int timer = 0;
+        stack[top++] = root;
+        parent[root] = -1;
+        tin[root] = timer++;
+        while (top > 0) {
+            int v = stack[top - 1];
+            if (next[v] < graph.degree(v)) {
+                int u = graph.neighbor(v, next[v]++);
+                if (!directed && u == parent[v] && !skippedParent[v]) {
+                    skippedParent[v] = true;
+                    continue;
+                }
+                if (tin[u] >= 0) {
+                    throw new IllegalArgumentException("graph is not a tree: cycle through vertex " + u);
+                }
+                parent[u] = v;
+                tin[u] = timer++;
+                stack[top++] = u;
+            } else {
+                tout[v] = timer - 1;
+                top--;
+            }
+        }
+        if (timer != n) {
+            throw new IllegalArgumentException(
+                    "graph is not connected: " + (n - timer) + " vertices unreachable from root " + root);
+        }
+    }
+
+    private void checkVertex(int v) {
+        if (v < 0 || v >= n) {
+            throw new IndexOutOfBoundsException("vertex = " + v);
+        }
+    }
+}
@@ -2,6 +2,8 @@ module MyFenwickTree {
     requires java.desktop;
     exports app;
     exports ds;
+    exports ds.query;
     exports graph;
+    exports graph.traversal;
     exports ui;
 }
\ No newline at end of file
@@ -5,6 +5,7 @@ import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import javax.swing.border.LineBorder;
 import java.awt.*;
+import java.util.BitSet;
 import java.util.Random;
 
 /**
@@ -72,18 +73,20 @@ public class FenwickFrame extends JFrame {
     private RoundedPanel centerCard;
     private RoundedPanel logCard;
 
-    private JPanel arrPanel;
-    private JPanel treePanel;
+    private CellStrip arrStrip;
+    private CellStrip treeStrip;
     private FenwickTreePanel fenwickTreePanel;
     private JTextArea logArea;
 
-    private JPanel[] arrCells;
-    private JPanel[] treeCells;
-
     // окно просмотра по массивам
     private int windowStart = 0;
     private int lastWindowSize = 1;
 
+    // подсветка узлов tree[]: путь префиксной суммы и ошибки проверки (рисуются полосой)
+    private final int[] highlightPath = new int[32];
+    private int highlightCount = 0;
+    private BitSet errorNodes;
+
     public FenwickFrame() {
         super("Fenwick Tree");
 
@@ -293,18 +296,27 @@ public class FenwickFrame extends JFrame {
         arrTitle.setForeground(darkMode ? ACCENT_DARK_THEME : ACCENT_DARK);
         arraysPanel.add(arrTitle);
 
-        arrPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 5));
-        arrPanel.setOpaque(false);
-        arraysPanel.add(arrPanel);
+        arrStrip = new CellStrip(false);
+        arraysPanel.add(arrStrip);
 
         JLabel treeTitle = new JLabel("Массив Fenwick tree tree[1..n] (0-й служебный)");
         treeTitle.setFont(treeTitle.getFont().deriveFont(Font.BOLD, 13f));
         treeTitle.setForeground(darkMode ? ACCENT_DARK_THEME : ACCENT_DARK);
         arraysPanel.add(treeTitle);
 
-        treePanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 5));
-        treePanel.setOpaque(false);
-        arraysPanel.add(treePanel);
+        treeStrip = new CellStrip(true);
+        arraysPanel.add(treeStrip);
+
+        // окно зависит только от ширины полосы: при изменении размера пересчитываем без перестройки
+        arrStrip.addComponentListener(new java.awt.event.ComponentAdapter() {
+            @Override
+            public void componentResized(java.awt.event.ComponentEvent e) {
+                if (fenwick == null) return;
+                updateWindow();
+                arrStrip.repaint();
+                treeStrip.repaint();
+            }
+        });
 
         centerCard.add(arraysPanel, BorderLayout.NORTH);
 
@@ -510,7 +522,7 @@ public class FenwickFrame extends JFrame {
                 int delta = Integer.parseInt(updDeltaField.getText().trim());
                 fenwick.update(idx, delta);
                 log("Обновление: индекс=" + idx + ", изменение=" + delta);
-                redraw();
+                repaintUpdated(idx);
             } catch (NumberFormatException ex) {
                 log("Ошибка: индекс и изменение должны быть целыми числами.");
             } catch (Exception ex) {
@@ -539,7 +551,6 @@ public class FenwickFrame extends JFrame {
                 StringBuilder sb = new StringBuilder();
                 sb.append("Разложение префиксной суммы(").append(idx).append("):\n");
                 int i = idx + 1;
-                int[] treeArr = fenwick.getTreeSnapshot();
                 boolean first = true;
                 while (i > 0) {
                     int lsb = i & -i;
@@ -547,7 +558,7 @@ public class FenwickFrame extends JFrame {
                     int right = i;
                     if (!first) sb.append(" + ");
                     first = false;
-                    sb.append("t[").append(i).append("]=").append(treeArr[i])
+                    sb.append("t[").append(i).append("]=").append(fenwick.getNode(i))
                             .append(" (отрезок [").append(left - 1).append("..").append(right - 1).append("])");
                     i -= lsb;
                 }
@@ -601,7 +612,7 @@ public class FenwickFrame extends JFrame {
                     log("Массив пустой.");
                     return;
                 }
-                int total = fenwick.prefixSum(n - 1);
+                int total = fenwick.total();
                 if (target > total) {
                     log("Нижняя граница: сумма всех элементов = " + total +
                             ", она меньше целевой = " + target + ". Результат: -1.");
@@ -733,66 +744,57 @@ public class FenwickFrame extends JFrame {
     }
 
     private void redraw() {
+        clearTreeMarks();
         if (fenwick == null) {
-            arrPanel.removeAll();
-            treePanel.removeAll();
-            arrPanel.revalidate();
-            treePanel.revalidate();
-            repaint();
+            arrStrip.repaint();
+            treeStrip.repaint();
             return;
         }
+        updateWindow();
+        arrStrip.repaint();
+        treeStrip.repaint();
 
-        int[] arr = fenwick.getArrSnapshot();
-        int[] treeArr = fenwick.getTreeSnapshot();
-        int n = arr.length;
-        if (n == 0) return;
+        fenwickTreePanel.setTree(fenwick);
+    }
 
-        int approxCellWidth = 70;
-        int panelWidth = arrPanel.getWidth();
+    /* размер окна по ширине полосы; стоимость не зависит от n */
+    private void updateWindow() {
+        int n = fenwick.size();
+        int panelWidth = arrStrip.getWidth();
         if (panelWidth <= 0) {
             panelWidth = getWidth() - 200;
         }
 
-        int maxCells = panelWidth / approxCellWidth;
+        int maxCells = (panelWidth - CellStrip.GAP) / CellStrip.STEP;
         if (maxCells < 1) maxCells = 1;
         if (maxCells > n) maxCells = n;
-        int windowSize = maxCells;
-        lastWindowSize = windowSize;
+        lastWindowSize = maxCells;
 
-        int maxStart = Math.max(0, n - windowSize);
+        int maxStart = Math.max(0, n - lastWindowSize);
         if (windowStart > maxStart) windowStart = maxStart;
         if (windowStart < 0) windowStart = 0;
+    }
 
-        int arrEnd = Math.min(n - 1, windowStart + windowSize - 1);
-        int treeEnd = Math.min(treeArr.length - 1, windowStart + windowSize - 1);
-
-        arrPanel.removeAll();
-        treePanel.removeAll();
-
-        arrCells = new JPanel[arr.length];
-        treeCells = new JPanel[treeArr.length];
-
-        for (int i = windowStart; i <= arrEnd; i++) {
-            JPanel cell = createCell("[" + i + "]", String.valueOf(arr[i]));
-            arrCells[i] = cell;
-            arrPanel.add(cell);
+    /* после update(idx) меняются arr[idx] и узлы на пути idx+1 -> n: перерисовываем только их */
+    private void repaintUpdated(int idx) {
+        clearTreeMarks();
+        arrStrip.repaintCell(idx);
+        int n = fenwick.size();
+        for (int pos = idx + 1; pos <= n; pos += pos & -pos) {
+            treeStrip.repaintCell(pos);
         }
+        fenwickTreePanel.setTree(fenwick);
+    }
 
-        for (int i = windowStart; i <= treeEnd; i++) {
-            JPanel cell = createCell("[" + i + "]", String.valueOf(treeArr[i]));
-            if (i == 0) {
-                cell.setBackground(arrayZeroBg);
-            }
-            treeCells[i] = cell;
-            treePanel.add(cell);
+    private void clearTreeMarks() {
+        for (int k = 0; k < highlightCount; k++) {
+            treeStrip.repaintCell(highlightPath[k]);
+        }
+        highlightCount = 0;
+        if (errorNodes != null) {
+            errorNodes = null;
+            treeStrip.repaint();
         }
-
-        arrPanel.revalidate();
-        arrPanel.repaint();
-        treePanel.revalidate();
-        treePanel.repaint();
-
-        fenwickTreePanel.setTree(fenwick);
     }
 
     private void scrollArrayWindowToIndex(int index) {
@@ -816,39 +818,15 @@ public class FenwickFrame extends JFrame {
         redraw();
     }
 
-    private JPanel createCell(String top, String bottom) {
-        JPanel p = new JPanel();
-        p.setLayout(new GridLayout(2, 1));
-        p.setBorder(new LineBorder(darkMode ? CARD_BORDER_DARK : CARD_BORDER, 1, true));
-        p.setBackground(arrayCellBg);
-        p.setPreferredSize(new Dimension(60, 48));
-
-        JLabel l1 = new JLabel(top, SwingConstants.CENTER);
-        l1.setForeground(textSecondary);
-        JLabel l2 = new JLabel(bottom, SwingConstants.CENTER);
-        l2.setForeground(textPrimary);
-
-        p.add(l1);
-        p.add(l2);
-        return p;
-    }
-
     private void log(String msg) {
         logArea.append(msg + "\n");
         logArea.setCaretPosition(logArea.getDocument().getLength());
     }
 
     private void highlightPrefixPathInArray(int index) {
-        if (fenwick == null || treeCells == null) return;
+        if (fenwick == null) return;
 
-        for (int i = 0; i < treeCells.length; i++) {
-            if (treeCells[i] == null) continue;
-            if (i == 0) {
-                treeCells[i].setBackground(arrayZeroBg);
-            } else {
-                treeCells[i].setBackground(arrayCellBg);
-            }
-        }
+        clearTreeMarks();
 
         int n = fenwick.size();
         if (index < 0) index = 0;
@@ -856,12 +834,10 @@ public class FenwickFrame extends JFrame {
 
         int i = index + 1;
         while (i > 0) {
-            if (i >= 0 && i < treeCells.length && treeCells[i] != null) {
-                treeCells[i].setBackground(arrayHighlightBg);
-            }
+            highlightPath[highlightCount++] = i;
+            treeStrip.repaintCell(i);
             i -= i & -i;
         }
-        treePanel.repaint();
     }
 
     // Проверка корректности дерева
@@ -887,16 +863,8 @@ public class FenwickFrame extends JFrame {
             }
         }
 
-        if (treeCells != null) {
-            for (int i = 0; i < treeCells.length; i++) {
-                if (treeCells[i] == null) continue;
-                if (i == 0) {
-                    treeCells[i].setBackground(arrayZeroBg);
-                } else {
-                    treeCells[i].setBackground(arrayCellBg);
-                }
-            }
-        }
+        clearTreeMarks();
+        BitSet errors = new BitSet();
 
         boolean treeOk = true;
         StringBuilder diffTree = new StringBuilder();
@@ -904,9 +872,7 @@ public class FenwickFrame extends JFrame {
         for (int i = 1; i <= n; i++) {
             if (treeSnap[i] != expected[i]) {
                 treeOk = false;
-                if (treeCells != null && i < treeCells.length && treeCells[i] != null) {
-                    treeCells[i].setBackground(arrayErrorBg);
-                }
+                errors.set(i);
                 if (diffTree.length() < 400) {
                     diffTree.append("i=").append(i)
                             .append(": tree=").append(treeSnap[i])
@@ -944,7 +910,82 @@ public class FenwickFrame extends JFrame {
             }
         }
 
-        treePanel.repaint();
+        errorNodes = errors.isEmpty() ? null : errors;
+        treeStrip.repaint();
+    }
+
+    /**
+     * Полоса ячеек arr[] или tree[], рисуемая вручную: компонентов на ячейку нет,
+     * рисуется только окно [windowStart, windowStart + lastWindowSize) в пределах clip,
+     * поэтому перерисовка и память зависят от ширины окна, а не от n.
+     */
+    private class CellStrip extends JComponent {
+        static final int CELL_W = 60;
+        static final int CELL_H = 48;
+        static final int GAP = 5;
+        static final int STEP = CELL_W + GAP;
+
+        private final boolean treeRow;
+
+        CellStrip(boolean treeRow) {
+            this.treeRow = treeRow;
+            setOpaque(false);
+            setFont(UIManager.getFont("Label.font"));
+            setPreferredSize(new Dimension(STEP, CELL_H + 2 * GAP));
+        }
+
+        /** Перерисовывает одну ячейку, если она попадает в окно. */
+        void repaintCell(int i) {
+            int slot = i - windowStart;
+            if (slot < 0 || slot >= lastWindowSize) return;
+            repaint(GAP + slot * STEP, GAP, CELL_W, CELL_H);
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            if (fenwick == null) return;
+            int length = treeRow ? fenwick.size() + 1 : fenwick.size();
+            int end = Math.min(length, windowStart + lastWindowSize);
+
+            Rectangle clip = g.getClipBounds();
+            int from = windowStart;
+            if (clip != null) {
+                from = Math.max(from, windowStart + (clip.x - GAP) / STEP);
+                end = Math.min(end, windowStart + (clip.x + clip.width - GAP) / STEP + 1);
+            }
+
+            Graphics2D g2 = (Graphics2D) g.create();
+            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            FontMetrics fm = g2.getFontMetrics(getFont());
+            g2.setFont(getFont());
+            int half = CELL_H / 2;
+            for (int i = from; i < end; i++) {
+                int x = GAP + (i - windowStart) * STEP;
+                g2.setColor(cellBackground(i));
+                g2.fillRoundRect(x, GAP, CELL_W, CELL_H, 6, 6);
+                g2.setColor(darkMode ? CARD_BORDER_DARK : CARD_BORDER);
+                g2.drawRoundRect(x, GAP, CELL_W - 1, CELL_H - 1, 6, 6);
+
+                String top = "[" + i + "]";
+                String bottom = String.valueOf(treeRow ? fenwick.getNode(i) : fenwick.get(i));
+                int baseline = (half - fm.getHeight()) / 2 + fm.getAscent();
+                g2.setColor(textSecondary);
+                g2.drawString(top, x + (CELL_W - fm.stringWidth(top)) / 2, GAP + baseline);
+                g2.setColor(textPrimary);
+                g2.drawString(bottom, x + (CELL_W - fm.stringWidth(bottom)) / 2, GAP + half + baseline);
+            }
+            g2.dispose();
+        }
+
+        private Color cellBackground(int i) {
+            if (!treeRow) return arrayCellBg;
+            if (errorNodes != null && errorNodes.get(i)) return arrayErrorBg;
+            for (int k = 0; k < highlightCount; k++) {
+                if (highlightPath[k] == i) return arrayHighlightBg;
+            }
+            return i == 0 ? arrayZeroBg : arrayCellBg;
+        }
     }
 
     private class RoundedPanel extends JPanel {
@@ -39,8 +39,20 @@ public class FenwickTreePanel extends JPanel {
     private Color BG()             { return dark ? BG_DARK : BG_LIGHT; }
     private FenwickTree tree;
     private ViewMode mode = ViewMode.TREE;
-    private int[] xs;
-    private int[] ys;
+
+    private static final int MARGIN_X = 30;
+    private static final double BAND_PX = 3.0;        // уже этого расстояния между узлами уровень — полоса плотности
+    private static final double AXIS_LABEL_PX = 40.0; // минимальный шаг подписей оси, в пикселях
+
+    // кэш раскладки: пересчитывается при смене n, размера панели или режима, не на каждый кадр
+    private int layoutN = -1;
+    private int layoutWidth;
+    private int layoutHeight;
+    private ViewMode layoutMode;
+    private double layoutSpacing;
+    private int maxLevel;
+    private int[] levelY;
+    private int axisY;
     private double scale = 1.0;
     private final double minScale = 0.4;
     private final double maxScale = 2.5;
@@ -172,23 +184,23 @@ public class FenwickTreePanel extends JPanel {
         g2.dispose();
     }
 
-    private void paintTreeMode(Graphics2D g2, int width, int height) {
-        int n = tree.size();
-
-        int marginX = 30;
-        int marginTop = 20;
-        int marginBottom = 30;
+    /* раскладка: x узла i = marginX + i * spacing, y зависит только от уровня (lowbit) */
+    private void ensureLayout(int n, int width, int height) {
+        if (n == layoutN && width == layoutWidth && height == layoutHeight && mode == layoutMode) {
+            return;
+        }
+        boolean treeMode = mode == ViewMode.TREE;
+        int marginTop = treeMode ? 20 : 25;
+        int marginBottom = treeMode ? 30 : 40;
+        int minLevelStep = treeMode ? 25 : 20;
 
-        int usableWidth = width - 2 * marginX;
+        int usableWidth = width - 2 * MARGIN_X;
         if (usableWidth < 50) usableWidth = 50;
+        layoutSpacing = (double) usableWidth / (n + 1);
 
-        int spacingX = usableWidth / (n + 1);
-
-        int maxLevel = 0;
-        for (int i = 1; i <= n; i++) {
-            int lsb = i & -i;
-            int level = log2(lsb);
-            if (level > maxLevel) maxLevel = level;
+        if (n != layoutN) {
+            maxLevel = 31 - Integer.numberOfLeadingZeros(n);
+            levelY = new int[maxLevel + 1];
         }
 
         int usableHeight = height - marginTop - marginBottom;
@@ -199,134 +211,223 @@ public class FenwickTreePanel extends JPanel {
             levelStep = 0;
         } else {
             levelStep = usableHeight / (maxLevel + 1);
-            if (levelStep < 25) levelStep = 25;
+            if (levelStep < minLevelStep) levelStep = minLevelStep;
         }
 
-        int baseY = height - marginBottom;
+        for (int level = 0; level <= maxLevel; level++) {
+            levelY[level] = treeMode
+                    ? height - marginBottom - level * levelStep
+                    : marginTop + (maxLevel - level) * levelStep;
+        }
+        axisY = marginTop + usableHeight + 5;
 
-        xs = new int[n + 1];
-        ys = new int[n + 1];
+        layoutN = n;
+        layoutWidth = width;
+        layoutHeight = height;
+        layoutMode = mode;
+    }
 
-        for (int i = 1; i <= n; i++) {
-            int lsb = i & -i;
-            int level = log2(lsb);
-            int x = marginX + i * spacingX;
-            int y = baseY - level * levelStep;
-            xs[i] = x;
-            ys[i] = y;
-        }
+    private void paintTreeMode(Graphics2D g2, int width, int height) {
+        int n = tree.size();
+        ensureLayout(n, width, height);
+
+        // видимая область в логических координатах (обратное к scale + translate)
+        double minX = -translateX;
+        double maxX = width / scale - translateX;
+        double minY = -translateY;
+        double maxY = height / scale - translateY;
+
+        int radius = 26;
+        int r2 = radius / 2;
 
         g2.setStroke(new BasicStroke(2f));
 
+        // рёбра: от узла уровня level к родителю i + 2^level; ребро видно, если его x-отрезок пересекает окно
         g2.setColor(EDGE_COLOR());
-        for (int i = 1; i <= n; i++) {
-            int parent = i + (i & -i);
-            if (parent <= n) {
-                g2.drawLine(xs[i], ys[i], xs[parent], ys[parent]);
+        for (int level = 0; level < maxLevel; level++) {
+            long p = 1L << level;
+            if (2 * p * layoutSpacing * scale < BAND_PX) continue; // уровень рисуется полосой
+            long lo = firstIndex(minX) - p;
+            long hi = Math.min(lastIndex(maxX), n);
+            for (long i = firstAtLevel(Math.max(lo, 1), level); i <= hi; i += 2 * p) {
+                long parent = i + p;
+                if (parent > n) break;
+                g2.drawLine(xOf(i), levelY[level], xOf(parent), levelY[Long.numberOfTrailingZeros(parent)]);
             }
         }
 
-        int[] fenwArr = tree.getTreeSnapshot();
-        int radius = 26;
-        int r2 = radius / 2;
-
         g2.setFont(g2.getFont().deriveFont(Font.PLAIN, 12f));
-        for (int i = 1; i <= n; i++) {
-            int x = xs[i];
-            int y = ys[i];
-
-            g2.setColor(NODE_FILL());
-            g2.fillOval(x - r2, y - r2, radius, radius);
-            g2.setColor(NODE_BORDER());
-            g2.drawOval(x - r2, y - r2, radius, radius);
-
-            String val = String.valueOf(fenwArr[i]);
-            FontMetrics fm = g2.getFontMetrics();
-            int tw = fm.stringWidth(val);
-            int th = fm.getAscent();
-            g2.setColor(TEXT_PRIMARY());
-            g2.drawString(val, x - tw / 2, y + th / 2 - 3);
+        FontMetrics fm = g2.getFontMetrics();
+        for (int level = 0; level <= maxLevel; level++) {
+            int y = levelY[level];
+            if (y + radius < minY || y - radius > maxY) continue;
+
+            long p = 1L << level;
+            double gap = 2 * p * layoutSpacing;
+            long lo = firstAtLevel(Math.max(firstIndex(minX - radius), 1), level);
+            long hi = Math.min(lastIndex(maxX + radius), n);
+            if (lo > hi) continue;
+
+            if (gap * scale < BAND_PX) {
+                paintDensityBand(g2, fm, xOf(lo) - r2, xOf(hi - (hi - lo) % (2 * p)) + r2, y - r2, radius,
+                        gap * scale, levelCount(n, level));
+                continue;
+            }
 
-            String idxStr = String.valueOf(i);
-            int tw2 = fm.stringWidth(idxStr);
-            g2.setColor(TEXT_SECONDARY());
-            g2.drawString(idxStr, x - tw2 / 2, y + radius);
+            // узлы не помещаются с подписями — рисуем уменьшенные кружки без текста
+            boolean labels = gap >= radius + 4;
+            int d = labels ? radius : (int) Math.max(4, Math.min(radius, gap - 2));
+            int h = d / 2;
+            for (long i = lo; i <= hi; i += 2 * p) {
+                int x = xOf(i);
+
+                g2.setColor(NODE_FILL());
+                g2.fillOval(x - h, y - h, d, d);
+                g2.setColor(NODE_BORDER());
+                g2.drawOval(x - h, y - h, d, d);
+                if (!labels) continue;
+
+                // подписи, которые налезли бы на соседний узел уровня, пропускаем
+                String val = String.valueOf(tree.getNode((int) i));
+                int tw = fm.stringWidth(val);
+                int th = fm.getAscent();
+                if (tw <= gap - 4) {
+                    g2.setColor(TEXT_PRIMARY());
+                    g2.drawString(val, x - tw / 2, y + th / 2 - 3);
+                }
+
+                String idxStr = String.valueOf(i);
+                int tw2 = fm.stringWidth(idxStr);
+                if (tw2 <= gap - 4) {
+                    g2.setColor(TEXT_SECONDARY());
+                    g2.drawString(idxStr, x - tw2 / 2, y + radius);
+                }
+            }
         }
     }
 
     private void paintSegmentsMode(Graphics2D g2, int width, int height) {
         int n = tree.size();
+        ensureLayout(n, width, height);
 
-        int marginX = 30;
-        int marginTop = 25;
-        int marginBottom = 40;
-
-        int usableWidth = width - 2 * marginX;
-        if (usableWidth < 50) usableWidth = 50;
-
-        int stepX = usableWidth / (n + 1);
-
-        int maxLevel = 0;
-        for (int i = 1; i <= n; i++) {
-            int lsb = i & -i;
-            int level = log2(lsb);
-            if (level > maxLevel) maxLevel = level;
-        }
-
-        int usableHeight = height - marginTop - marginBottom;
-        if (usableHeight < 40) usableHeight = 40;
-
-        int levelStep;
-        if (maxLevel == 0) {
-            levelStep = 0;
-        } else {
-            levelStep = usableHeight / (maxLevel + 1);
-            if (levelStep < 20) levelStep = 20;
-        }
+        double minX = -translateX;
+        double maxX = width / scale - translateX;
+        double minY = -translateY;
+        double maxY = height / scale - translateY;
 
         FontMetrics fm = g2.getFontMetrics();
 
-        int axisY = marginTop + usableHeight + 5;
         g2.setColor(EDGE_COLOR());
-        g2.drawLine(marginX, axisY, marginX + (n + 1) * stepX, axisY);
-
-        int[] fenwArr = tree.getTreeSnapshot();
-
-        for (int i = 1; i <= n; i++) {
-            int lsb = i & -i;
-            int level = log2(lsb);
-
-            int right = i;
-            int left = i - lsb + 1;
-
-            int x1 = marginX + left * stepX;
-            int x2 = marginX + (right + 1) * stepX;
-            int y = marginTop + (maxLevel - level) * levelStep;
+        int axisFrom = (int) Math.max(MARGIN_X, minX);
+        int axisTo = (int) Math.min(MARGIN_X + (n + 1) * layoutSpacing, maxX);
+        if (axisFrom < axisTo) {
+            g2.drawLine(axisFrom, axisY, axisTo, axisY);
+        }
 
-            int h = 22;
-            g2.setColor(SEGMENT_FILL());
-            g2.fillRoundRect(x1, y - h / 2, x2 - x1, h, 8, 8);
-            g2.setColor(NODE_BORDER());
-            g2.drawRoundRect(x1, y - h / 2, x2 - x1, h, 8, 8);
+        int h = 22;
+        for (int level = 0; level <= maxLevel; level++) {
+            int y = levelY[level];
+            if (y + h < minY || y - h > maxY) continue;
+
+            // отрезок узла i: [i - 2^level + 1, i], на экране [x(i - 2^level + 1), x(i + 1)]
+            long p = 1L << level;
+            long lo = firstAtLevel(Math.max(firstIndex(minX) - 1, 1), level);
+            long hi = Math.min(lastIndex(maxX) + p - 1, n);
+            if (lo > hi) continue;
+
+            if (2 * p * layoutSpacing * scale < BAND_PX) {
+                long last = hi - (hi - lo) % (2 * p);
+                paintDensityBand(g2, fm, xOf(lo - p + 1), xOf(last + 1), y - h / 2, h,
+                        2 * p * layoutSpacing * scale, levelCount(n, level));
+                continue;
+            }
 
-            String text = "t[" + i + "]=" + fenwArr[i] + " [" + left + ".." + right + "]";
-            int tw = fm.stringWidth(text);
-            int tx = x1 + (x2 - x1 - tw) / 2;
-            if (tx < x1 + 2) tx = x1 + 2;
-            g2.setColor(TEXT_PRIMARY());
-            g2.drawString(text, tx, y + fm.getAscent() / 2 - 2);
+            for (long i = lo; i <= hi; i += 2 * p) {
+                long left = i - p + 1;
+                int x1 = xOf(left);
+                int x2 = xOf(i + 1);
+
+                g2.setColor(SEGMENT_FILL());
+                g2.fillRoundRect(x1, y - h / 2, x2 - x1, h, 8, 8);
+                g2.setColor(NODE_BORDER());
+                g2.drawRoundRect(x1, y - h / 2, x2 - x1, h, 8, 8);
+
+                // подпись только если помещается в отрезок
+                String text = "t[" + i + "]=" + tree.getNode((int) i) + " [" + left + ".." + i + "]";
+                int tw = fm.stringWidth(text);
+                if (tw > x2 - x1 - 4) continue;
+                int tx = x1 + (x2 - x1 - tw) / 2;
+                g2.setColor(TEXT_PRIMARY());
+                g2.drawString(text, tx, y + fm.getAscent() / 2 - 2);
+            }
         }
 
+        // подписи индексов на оси: шаг — степень двойки, чтобы соседние подписи не сливались
         g2.setColor(TEXT_SECONDARY());
         g2.setFont(g2.getFont().deriveFont(Font.PLAIN, 11f));
-        for (int i = 1; i <= n; i++) {
-            int x = marginX + i * stepX;
+        long stride = 1;
+        while (stride * layoutSpacing * scale < AXIS_LABEL_PX && stride < n) {
+            stride <<= 1;
+        }
+        long from = Math.max(firstIndex(minX - AXIS_LABEL_PX), 1);
+        from = (from + stride - 1) / stride * stride;
+        long to = Math.min(lastIndex(maxX + AXIS_LABEL_PX), n);
+        for (long i = from; i <= to; i += stride) {
             String s = String.valueOf(i);
             int tw = fm.stringWidth(s);
-            g2.drawString(s, x - tw / 2, axisY + fm.getAscent() + 2);
+            g2.drawString(s, xOf(i) - tw / 2, axisY + fm.getAscent() + 2);
         }
     }
 
+    /*
+     * Уровень, где соседние узлы ближе BAND_PX пикселей, рисуется одной полосой:
+     * непрозрачность растёт с плотностью (узлов на пиксель), стоимость O(1) вместо O(узлов).
+     */
+    private void paintDensityBand(Graphics2D g2, FontMetrics fm, int x1, int x2, int y, int h,
+                                  double gapPx, long count) {
+        double perPixel = 1.0 / gapPx;
+        int alpha = (int) (90 + 30 * (Math.log(perPixel * BAND_PX) / Math.log(2)));
+        if (alpha > 220) alpha = 220;
+        if (alpha < 90) alpha = 90;
+        Color base = NODE_BORDER();
+        g2.setColor(new Color(base.getRed(), base.getGreen(), base.getBlue(), alpha));
+        g2.fillRect(x1, y, Math.max(1, x2 - x1), h);
+
+        String text = count + " узлов";
+        int tw = fm.stringWidth(text);
+        if (tw + 8 <= x2 - x1) {
+            g2.setColor(TEXT_PRIMARY());
+            g2.drawString(text, x1 + (x2 - x1 - tw) / 2, y + (h + fm.getAscent()) / 2 - 2);
+        }
+    }
+
+    private int xOf(long i) {
+        return (int) Math.round(MARGIN_X + i * layoutSpacing);
+    }
+
+    /* наименьший индекс с x(i) >= x */
+    private long firstIndex(double x) {
+        return (long) Math.ceil((x - MARGIN_X) / layoutSpacing);
+    }
+
+    /* наибольший индекс с x(i) <= x */
+    private long lastIndex(double x) {
+        return (long) Math.floor((x - MARGIN_X) / layoutSpacing);
+    }
+
+    /* наименьший i >= from с lowbit(i) = 2^level, то есть i = 2^level * (2k + 1) */
+    private static long firstAtLevel(long from, int level) {
+        long p = 1L << level;
+        if (from <= p) return p;
+        long k = (from - p + 2 * p - 1) / (2 * p);
+        return p + k * 2 * p;
+    }
+
+    /* число узлов уровня level среди 1..n */
+    private static long levelCount(int n, int level) {
+        return ((long) (n >> level) + 1) / 2;
+    }
+
     private void drawEmptyMessage(Graphics g) {
         g.setColor(TEXT_SECONDARY());
         String msg = "Постройте дерево (Build), чтобы увидеть визуализацию";
@@ -336,13 +437,4 @@ public class FenwickTreePanel extends JPanel {
         int y = getHeight() / 2;
         g.drawString(msg, x, y);
     }
-
-    private int log2(int x) {
-        int res = 0;
-        while (x > 1) {
-            x >>= 1;
-            res++;
-        }
-        return res;
-    }
 }
\ No newline at end of file